@@ -0,0 +1,68 @@
+package db.migration;
+
+import nl.rug.API.common.CompressedTextConverter;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves the long texts (book and song descriptions, review texts) to binary columns holding the
+ * compressed form written by {@link CompressedTextConverter}. The compression can not be expressed in SQL,
+ * so the existing rows are converted here, a page of ids at a time.
+ */
+public class V6__compress_long_texts extends BaseJavaMigration {
+    private static final int PAGE_SIZE = 1000;
+
+    private static final String[][] COLUMNS = {
+            {"book", "description"},
+            {"song", "description"},
+            {"review", "review_full_text"},
+            {"review", "review_description"}
+    };
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        for (String[] column : COLUMNS) {
+            compress(connection, column[0], column[1]);
+        }
+    }
+
+    private void compress(Connection connection, String table, String column) throws SQLException {
+        String compressed = column + "_compressed";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table " + table + " add column " + compressed + " longblob");
+        }
+        try (PreparedStatement select = connection.prepareStatement(
+                "select id, " + column + " from " + table + " where id > ? order by id limit " + PAGE_SIZE);
+             PreparedStatement update = connection.prepareStatement(
+                     "update " + table + " set " + compressed + " = ? where id = ?")) {
+            int lastId = Integer.MIN_VALUE;
+            int rows;
+            do {
+                rows = 0;
+                select.setInt(1, lastId);
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        lastId = result.getInt(1);
+                        update.setBytes(1, CompressedTextConverter.compress(result.getString(2)));
+                        update.setInt(2, lastId);
+                        update.addBatch();
+                        rows++;
+                    }
+                }
+                update.executeBatch();
+            } while (rows == PAGE_SIZE);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter table " + table + " drop column " + column);
+            statement.execute("alter table " + table + " rename column " + compressed + " to " + column);
+            statement.execute("alter table " + table + " modify column " + column + " longblob not null");
+        }
+    }
+}
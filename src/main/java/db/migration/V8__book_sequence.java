@@ -0,0 +1,44 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates book_seq, the sequence book ids are taken from since they are no longer auto_increment values
+ * (see V9), and starts it after the existing book ids.
+ * The sequence may already exist (starting at 1) on databases that Hibernate updated with ddl-auto=update.
+ * Hibernate's pooled optimizer (allocationSize 50 on Book) uses the 50 ids up to the value it reads, so the
+ * sequence is restarted at the highest id plus 50. The restart value has to be a literal, hence the Java migration.
+ */
+public class V8__book_sequence extends BaseJavaMigration {
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create sequence if not exists book_seq start with 1 increment by " + ALLOCATION_SIZE);
+            long maxId;
+            try (ResultSet result = statement.executeQuery("select coalesce(max(id), 0) from book")) {
+                result.next();
+                maxId = result.getLong(1);
+            }
+            if (maxId == 0) {
+                return;
+            }
+            long next;
+            try (ResultSet result = statement.executeQuery("select next value for book_seq")) {
+                result.next();
+                next = result.getLong(1);
+            }
+            // Never move the sequence back: the blocks already handed to Hibernate end below the next value
+            long restart = Math.max(maxId + ALLOCATION_SIZE, next);
+            statement.execute("alter sequence book_seq restart with " + restart + " increment by " + ALLOCATION_SIZE);
+        }
+    }
+}
@@ -5,8 +5,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -21,7 +24,11 @@ import java.util.List;
  * The Album class is the representation of the Album entity.
  */
 @Entity
-@Table(name = "album")
+@Table(name = "album", indexes = {
+        @Index(name = "ix_album_title", columnList = "title"),
+        @Index(name = "ix_album_artist", columnList = "artist"),
+        @Index(name = "ix_album_added_on", columnList = "addedOn")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -45,7 +52,11 @@ public class Album {
     @Column(nullable = false)
     private Timestamp updatedOn; //Timestamp of the last update to the Database
 
+    @Version
+    private long version; //Incremented by every update (including changes of the songs), used for optimistic locking
+
     @OneToMany
+    @JoinTable(name = "album_songs", indexes = @Index(name = "ix_album_songs_album", columnList = "album_id, songs_id"))
     private List<Song> songs = new ArrayList<>();
 
     /**
@@ -62,12 +73,4 @@ public class Album {
         this.addedOn = new Timestamp(System.currentTimeMillis());
         this.updatedOn = new Timestamp(System.currentTimeMillis());
     }
-
-    public void addSong(Song song) {
-        songs.add(song);
-    }
-
-    public void removeSongs(Song song) {
-        songs.remove(song);
-    }
 }
@@ -3,13 +3,17 @@ package nl.rug.API.albummanagement;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import nl.rug.API.common.CursorPage;
+import nl.rug.API.common.Expand;
+import nl.rug.API.common.Keyset;
+import nl.rug.API.common.Versions;
+import org.springframework.http.HttpHeaders;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,41 +29,29 @@ public class AlbumController {
 
     /**
      * Method to retrieve all the albums with optional parameters.
+     * The albums are returned in pages, the token of the next page is sent in the X-Next-Cursor header.
      *
      * @param id The id of the album
      * @param title  The title of the album
      * @param artist The artist of the album
-     * @param limit A limit value for the response entities quantity
+     * @param limit A limit value for the response entities quantity (page size, default 50)
+     * @param cursor The token of the previous page
+     * @param expand Optional "songs" to include the summaries of the songs of every album
      * @return ResponseEntity The response code with an album or list or none
      */
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<Album> getAllAlbums(@RequestParam(value = "id", required = false) Integer id,
-                                    @RequestParam(value = "title", required = false) String title,
-                                    @RequestParam(value = "artist", required = false) String artist,
-                                    @RequestParam(value = "limit", required = false) Integer limit) {
-
-        List<Album> albums = new ArrayList<>();
-
-        if (id != null) {
-            Album albumById = albumService.getAlbumById(id);
-            albums.add(albumById);
-            return albums;
-        }
-
-        if (title != null) {
-            albums.addAll(albumService.getAlbumByTitle(title));
-        } else if (artist != null) {
-            albums.addAll(albumService.getAlbumByArtist(artist));
-        } else {
-            albums = albumService.getAllAlbums();
-        }
-
-        if (limit != null && albums.size() > limit) {
-            albums = albums.subList(0, limit);
+    public ResponseEntity<List<AlbumView>> getAllAlbums(@RequestParam(value = "id", required = false) Integer id,
+                                                        @RequestParam(value = "title", required = false) String title,
+                                                        @RequestParam(value = "artist", required = false) String artist,
+                                                        @RequestParam(value = "limit", required = false) Integer limit,
+                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "expand", required = false) String expand) {
+        boolean withSongs = Expand.parse(expand, "songs").contains("songs");
+        CursorPage<AlbumView> page = albumService.getAlbums(id, title, artist, withSongs, cursor, Keyset.limit(limit));
+        if (page.items().isEmpty() && cursor == null && (id != null || title != null || artist != null)) {
+            throw new EntityNotFoundException("Error: No albums found");
         }
-
-        return albums;
+        return page.toResponse();
     }
 
     @GetMapping("/{id}")
@@ -87,13 +79,15 @@ public class AlbumController {
      *
      * @param id The id of the album
      * @param albumDTO Dto of album
+     * @param ifMatch optional version of the album that is expected to be updated
      * @return the http response
      */
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public Album updateAlbum(@PathVariable int id, @RequestBody @Valid AlbumDTO albumDTO) {
+    public Album updateAlbum(@PathVariable int id, @RequestBody @Valid AlbumDTO albumDTO,
+                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Album album = new Album(albumDTO.title(), albumDTO.artist(), albumDTO.releaseDate());
-        return albumService.updateAlbum(id, album);
+        return albumService.updateAlbum(id, album, Versions.fromIfMatch(ifMatch));
     }
 
     /**
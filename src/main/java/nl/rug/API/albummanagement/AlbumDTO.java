@@ -1,5 +1,7 @@
 package nl.rug.API.albummanagement;
 
+import jakarta.validation.constraints.NotNull;
+
 import java.time.LocalDate;
 
 /**
@@ -8,4 +10,4 @@ import java.time.LocalDate;
  * @param artist artist of the album
  * @param releaseDate release date of the album
  */
-public record AlbumDTO(String title, String artist, LocalDate releaseDate) { }
+public record AlbumDTO(@NotNull String title, @NotNull String artist, @NotNull LocalDate releaseDate) { }
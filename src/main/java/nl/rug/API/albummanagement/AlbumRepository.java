@@ -1,14 +1,114 @@
 package nl.rug.API.albummanagement;
 
-import org.springframework.data.repository.CrudRepository;
+import nl.rug.API.reviewmanagement.ReviewType;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
- * AlbumRepository interface provides CRUD operations for the Album entity.
+ * AlbumRepository interface provides CRUD, paging and specification queries for the Album entity.
  */
-public interface AlbumRepository extends CrudRepository<Album, Integer> {
+public interface AlbumRepository extends JpaRepository<Album, Integer>, JpaSpecificationExecutor<Album> {
     List<Album> findByTitle(String title);
 
     List<Album> findByArtist(String artist);
+
+    /**
+     * Calculates the average rating of an album in a single query, from the rating totals of its songs.
+     *
+     * @param id   the id of the album
+     * @param type the review type of songs
+     * @return the average rating of all reviews of the songs of the album, 0.0 if there are none
+     */
+    @Query("select coalesce(1.0 * sum(g.ratingSum) / nullif(sum(g.ratingCount), 0), 0.0) "
+            + "from Album a join a.songs s, RatingAggregate g "
+            + "where a.id = :id and g.id.reviewType = :type and g.id.mediaId = s.id")
+    double averageRating(int id, ReviewType type);
+
+    /**
+     * Finds the ids of the albums that contain a song.
+     *
+     * @param songId the id of the song
+     * @return the ids of the albums
+     */
+    @Query("select a.id from Album a join a.songs s where s.id = :songId")
+    List<Integer> findIdsBySongId(int songId);
+
+    /**
+     * Finds an album and locks its row until the end of the transaction, so changes of its songs are serialized.
+     *
+     * @param id the id of the album
+     * @return the album, empty if it does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Album> findForUpdateById(int id);
+
+    /**
+     * Adds existing songs to an album with one statement, songs that are already on the album are skipped.
+     *
+     * @param albumId the id of the album
+     * @param songIds the ids of the songs, unknown ids are ignored
+     * @return the number of added songs
+     */
+    @Modifying
+    @Query(value = "insert into album_songs (album_id, songs_id) select :albumId, s.id from song s "
+            + "where s.id in (:songIds) "
+            + "and not exists (select 1 from album_songs m where m.album_id = :albumId and m.songs_id = s.id)",
+            nativeQuery = true)
+    int insertSongs(int albumId, Collection<Integer> songIds);
+
+    /**
+     * Removes songs from an album with one statement.
+     *
+     * @param albumId the id of the album
+     * @param songIds the ids of the songs, songs that are not on the album are ignored
+     * @return the number of removed songs
+     */
+    @Modifying
+    @Query(value = "delete from album_songs where album_id = :albumId and songs_id in (:songIds)", nativeQuery = true)
+    int deleteSongs(int albumId, Collection<Integer> songIds);
+
+    /**
+     * Finds which of the given songs are on another album than the given one.
+     * A song can only be on one album (unique songs_id in album_songs).
+     *
+     * @param albumId the id of the album
+     * @param songIds the ids of the songs
+     * @return the ids of the songs that are on another album
+     */
+    @Query(value = "select songs_id from album_songs where songs_id in (:songIds) and album_id <> :albumId", nativeQuery = true)
+    List<Integer> findSongIdsOnOtherAlbums(int albumId, Collection<Integer> songIds);
+
+    /**
+     * Marks an album as changed after its songs were changed: increments the version and sets the update timestamp.
+     *
+     * @param id  the id of the album
+     * @param now the update timestamp
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Album a set a.updatedOn = :now, a.version = a.version + 1 where a.id = :id")
+    void touch(int id, Timestamp now);
+
+    /**
+     * Updates an album in a single statement, without reading it first.
+     *
+     * @param id      the id of the album
+     * @param album   the new values of the album
+     * @param version the expected version of the album, any version if null
+     * @param now     the update timestamp
+     * @return the number of updated albums, 0 if the album does not exist or has another version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Album a set a.title = :#{#album.title}, a.artist = :#{#album.artist}, a.releaseDate = :#{#album.releaseDate}, "
+            + "a.updatedOn = :now, a.version = a.version + 1 "
+            + "where a.id = :id and (:version is null or a.version = :version)")
+    int update(int id, Album album, Long version, Timestamp now);
 }
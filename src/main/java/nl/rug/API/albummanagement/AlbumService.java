@@ -1,15 +1,40 @@
 package nl.rug.API.albummanagement;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
-import nl.rug.API.reviewmanagement.Review;
+import nl.rug.API.common.CacheConfig;
+import nl.rug.API.common.CursorPage;
+import nl.rug.API.common.Keyset;
+import nl.rug.API.common.Summaries;
+import nl.rug.API.reviewmanagement.RatingChangedEvent;
+import nl.rug.API.reviewmanagement.ReviewType;
 import nl.rug.API.songmanagement.Song;
-import nl.rug.API.songmanagement.SongRepository;
+import nl.rug.API.songmanagement.SongChangedEvent;
+import nl.rug.API.songmanagement.SongSummary;
+import org.hibernate.Hibernate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 /**
@@ -18,19 +43,31 @@ import java.util.stream.StreamSupport;
 @Service
 @RequiredArgsConstructor
 public class AlbumService {
+    private static final int SONG_IDS_PER_STATEMENT = 1000;
+
     private final AlbumRepository albumRepository;
-    private final SongRepository songRepository;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
 
     /**
-     * Method to retrieve the album by id.
+     * Method to retrieve the album by id, reading through the album cache.
+     * The songs of the album are loaded before the album is cached.
      *
      * @param id - the id of the album
      * @return the album entity (if found)
      * @throws EntityNotFoundException if the album with the given id is not found
      */
+    @Transactional(readOnly = true)
     public Album getAlbumById(int id) {
-        return albumRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Album with id " + id + " not found"));
+        Cache cache = cacheManager.getCache(CacheConfig.ALBUMS);
+        Album album = cache.get(id, Album.class);
+        if (album == null) {
+            album = albumRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Error: Album with id " + id + " not found"));
+            Hibernate.initialize(album.getSongs());
+            cache.put(id, album);
+        }
+        return album;
     }
 
     /**
@@ -61,6 +98,55 @@ public class AlbumService {
         return albums;
     }
 
+    /**
+     * Method to retrieve one page of albums, most recently added first, optionally filtered by id, title and artist.
+     * The page is read with one query selecting the album summaries, the songs of all albums of the page
+     * are read with one more query if they are expanded.
+     *
+     * @param id        - the id of the album, may be null
+     * @param title     - the title of the album, may be null
+     * @param artist    - the artist of the album, may be null
+     * @param withSongs - whether the summaries of the songs are included
+     * @param cursor    - the token of the previous page, null for the first page
+     * @param limit     - the page size
+     * @return the page of albums
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AlbumView> getAlbums(Integer id, String title, String artist, boolean withSongs, String cursor, int limit) {
+        Specification<Album> spec = (root, query, cb) -> cb.and(
+                id == null ? cb.conjunction() : cb.equal(root.get("id"), id),
+                title == null ? cb.conjunction() : cb.equal(root.get("title"), title),
+                artist == null ? cb.conjunction() : cb.equal(root.get("artist"), artist));
+        CursorPage<AlbumSummary> page = Keyset.page(entityManager, Album.class, AlbumSummary.class, spec, cursor, limit,
+                album -> Keyset.cursorOf(album.addedOn(), album.id()));
+        if (!withSongs) {
+            return page.map(album -> new AlbumView(album, null));
+        }
+        Map<Integer, List<SongSummary>> songs = getSongSummaries(page.items().stream().map(AlbumSummary::id).toList());
+        return page.map(album -> new AlbumView(album, songs.getOrDefault(album.id(), List.of())));
+    }
+
+    /**
+     * Reads the song summaries of several albums with one query.
+     *
+     * @param albumIds the ids of the albums
+     * @return the songs per album id, albums without songs are missing
+     */
+    private Map<Integer, List<SongSummary>> getSongSummaries(List<Integer> albumIds) {
+        if (albumIds.isEmpty()) {
+            return Map.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Album> album = query.from(Album.class);
+        Join<Album, Song> song = album.join("songs");
+        query.multiselect(album.get("id"), Summaries.select(song, cb, SongSummary.class))
+                .where(album.get("id").in(albumIds));
+        return entityManager.createQuery(query).getResultStream()
+                .collect(Collectors.groupingBy(row -> row.get(0, Integer.class),
+                        Collectors.mapping(row -> row.get(1, SongSummary.class), Collectors.toList())));
+    }
+
     /**
      * Method to retrieve all the albums from the database.
      *
@@ -92,14 +178,29 @@ public class AlbumService {
      */
     @Transactional
     public Album updateAlbum(int id, Album updatedAlbum) {
-        Album album = albumRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Album with id " + id + " not found"));
-
-        album.setArtist(updatedAlbum.getArtist());
-        album.setTitle(updatedAlbum.getTitle());
-        album.setReleaseDate(updatedAlbum.getReleaseDate());
+        return updateAlbum(id, updatedAlbum, null);
+    }
 
-        return albumRepository.save(album);
+    /**
+     * Updates an album with one UPDATE statement and reads the new row.
+     *
+     * @param id           - the id of the album to update
+     * @param updatedAlbum - the new values of the album
+     * @param version      - the expected version of the album (If-Match), any version if null
+     * @return the updated album
+     * @throws EntityNotFoundException if the album with the given id is not found
+     * @throws OptimisticLockException if the album has another version
+     */
+    @Transactional
+    public Album updateAlbum(int id, Album updatedAlbum, Long version) {
+        if (albumRepository.update(id, updatedAlbum, version, new Timestamp(System.currentTimeMillis())) == 0) {
+            if (!albumRepository.existsById(id)) {
+                throw new EntityNotFoundException("Error: Album with id " + id + " not found");
+            }
+            throw new OptimisticLockException("Error: Album with id " + id + " was modified, version " + version + " is outdated");
+        }
+        albumCache().evict(id);
+        return albumRepository.findById(id).orElseThrow();
     }
 
     /**
@@ -111,6 +212,9 @@ public class AlbumService {
     public void deleteAlbum(int id) {
         if (albumRepository.existsById(id)) {
             albumRepository.deleteById(id);
+            albumCache().evict(id);
+            ratingCache().evict(id);
+            return;
         }
 
         throw new EntityNotFoundException("Error: Album with id " + id + " not found");
@@ -118,25 +222,43 @@ public class AlbumService {
 
     /**
      * Adds one or more songs to an album.
+     * The songs are inserted into the join table directly, without loading the songs of the album,
+     * so the cost depends on the number of given songs only. Songs that are already on the album
+     * and unknown song ids are skipped.
      *
      * @param id The ID of the album to which songs will be added.
      * @param songIds The IDs of the songs to add to the album.
-     * @return The updated album with the new songs added.
+     * @return The updated album with the new songs added, read from the database (the cache is only evicted
+     * after the commit).
      * @throws EntityNotFoundException If the album with the specified ID does not exist.
+     * @throws ResponseStatusException with code 409 if a song is on another album, also when it was added
+     * to the other album concurrently (unique songs_id in album_songs).
      */
     @Transactional
     public Album addSongsToAlbum(int id, int... songIds) {
-        Album album = albumRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Album with id " + id + " not found"));
-
-        Iterable<Song> songs = songRepository.findAllById(Arrays.stream(songIds).boxed().toList());
-        songs.forEach(album::addSong);
-
-        return albumRepository.save(album);
+        lockAlbum(id);
+        int added = 0;
+        for (List<Integer> chunk : chunks(songIds)) {
+            List<Integer> onOtherAlbums = albumRepository.findSongIdsOnOtherAlbums(id, chunk);
+            if (!onOtherAlbums.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Error: Songs " + onOtherAlbums + " are on another album");
+            }
+            try {
+                added += albumRepository.insertSongs(id, chunk);
+            } catch (DataIntegrityViolationException e) {
+                // Another album took one of the songs after the check above
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Error: Songs of " + chunk + " were added to another album", e);
+            }
+        }
+        songsChanged(id, added);
+        Album album = albumRepository.findById(id).orElseThrow();
+        Hibernate.initialize(album.getSongs());
+        return album;
     }
 
     /**
      * Removes one or more songs from an album.
+     * The songs are deleted from the join table directly, without loading the songs of the album.
      *
      * @param id The ID of the album from which songs will be removed.
      * @param songIds The IDs of the songs to remove from the album.
@@ -144,31 +266,108 @@ public class AlbumService {
      */
     @Transactional
     public void removeSongsFromAlbum(int id, int... songIds) {
-        Album album = albumRepository.findById(id)
+        lockAlbum(id);
+        int removed = 0;
+        for (List<Integer> chunk : chunks(songIds)) {
+            removed += albumRepository.deleteSongs(id, chunk);
+        }
+        songsChanged(id, removed);
+    }
+
+    /**
+     * Locks the row of an album, concurrent changes of the songs of the same album wait for each other.
+     *
+     * @param id the id of the album
+     * @throws EntityNotFoundException if the album does not exist
+     */
+    private void lockAlbum(int id) {
+        albumRepository.findForUpdateById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Error: Album with id " + id + " not found"));
+    }
 
-        Iterable<Song> songs = songRepository.findAllById(Arrays.stream(songIds).boxed().toList());
-        songs.forEach(album::removeSongs);
+    /**
+     * Increments the version of an album whose songs changed and evicts its cached entries.
+     *
+     * @param id      the id of the album
+     * @param changed the number of added or removed songs
+     */
+    private void songsChanged(int id, int changed) {
+        if (changed > 0) {
+            albumRepository.touch(id, new Timestamp(System.currentTimeMillis()));
+            albumCache().evict(id);
+            ratingCache().evict(id);
+        }
+    }
 
-        albumRepository.save(album);
+    /**
+     * Splits song ids into distinct chunks that fit in the in-list of one statement.
+     *
+     * @param songIds the song ids
+     * @return the chunks
+     */
+    private static List<List<Integer>> chunks(int... songIds) {
+        List<Integer> ids = Arrays.stream(songIds).distinct().boxed().toList();
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += SONG_IDS_PER_STATEMENT) {
+            chunks.add(ids.subList(start, Math.min(ids.size(), start + SONG_IDS_PER_STATEMENT)));
+        }
+        return chunks;
     }
 
     /**
      * Calculates the average rating of an album based on the ratings of its songs' reviews.
+     * The rating is computed with one aggregate query and cached until a review of one of the songs
+     * changes or songs are added to or removed from the album.
      *
      * @param id The ID of the album for which the average rating is calculated.
      * @return The average rating of the album, or 0.0 if there are no reviews.
      * @throws EntityNotFoundException If the album with the specified ID does not exist.
      */
     public double getAlbumRating(int id) {
-        Album album = albumRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Album with id " + id + " not found"));
+        Cache cache = ratingCache();
+        Double rating = cache.get(id, Double.class);
+        if (rating == null) {
+            if (!albumRepository.existsById(id)) {
+                throw new EntityNotFoundException("Error: Album with id " + id + " not found");
+            }
+            rating = albumRepository.averageRating(id, ReviewType.SONG);
+            cache.put(id, rating);
+        }
+        return rating;
+    }
+
+    /**
+     * Evicts the cached ratings of the albums that contain a song whose rating totals changed.
+     *
+     * @param event the change of the rating totals
+     */
+    @EventListener
+    public void onRatingChanged(RatingChangedEvent event) {
+        if (event.reviewType() != ReviewType.SONG) {
+            return;
+        }
+        if (event.mediaId() == null) {
+            ratingCache().clear();
+            return;
+        }
+        albumRepository.findIdsBySongId(event.mediaId()).forEach(ratingCache()::evict);
+    }
+
+    /**
+     * Evicts the cached albums that contain a changed song.
+     *
+     * @param event the change of the song
+     */
+    @EventListener
+    public void onSongChanged(SongChangedEvent event) {
+        albumRepository.findIdsBySongId(event.songId()).forEach(albumCache()::evict);
+    }
+
+    private Cache albumCache() {
+        return cacheManager.getCache(CacheConfig.ALBUMS);
+    }
 
-        return album.getSongs().stream()
-                .map(Song::getReviews)
-                .flatMap(List::stream)
-                .mapToInt(Review::getReviewRating)
-                .average()
-                .orElse(0.0);
+    private Cache ratingCache() {
+        return cacheManager.getCache(CacheConfig.ALBUM_RATINGS);
     }
 }
@@ -0,0 +1,24 @@
+package nl.rug.API.albummanagement;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Album as returned by the list endpoint, without its songs (see {@link AlbumView}).
+ *
+ * @param id          id of the album
+ * @param title       title of the album
+ * @param artist      name and surname of the artist
+ * @param releaseDate release date of the album
+ * @param addedOn     timestamp of the addition to the database
+ * @param updatedOn   timestamp of the last update
+ * @param version     version of the album, for If-Match
+ */
+public record AlbumSummary(int id,
+                           String title,
+                           String artist,
+                           LocalDate releaseDate,
+                           Timestamp addedOn,
+                           Timestamp updatedOn,
+                           long version) {
+}
@@ -0,0 +1,17 @@
+package nl.rug.API.albummanagement;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import nl.rug.API.songmanagement.SongSummary;
+
+import java.util.List;
+
+/**
+ * Listed album: the summary of the album and, with expand=songs, the summaries of its songs.
+ *
+ * @param album the album
+ * @param songs the songs of the album, null (left out) if they were not expanded
+ */
+public record AlbumView(@JsonUnwrapped AlbumSummary album,
+                        @JsonInclude(JsonInclude.Include.NON_NULL) List<SongSummary> songs) {
+}
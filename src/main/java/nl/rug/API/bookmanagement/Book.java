@@ -1,34 +1,42 @@
 package nl.rug.API.bookmanagement;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.OneToMany;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import nl.rug.API.reviewmanagement.Review;
+import nl.rug.API.common.CompressedTextConverter;
 
 import java.sql.Timestamp;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Book object.
  */
 @Entity
-@Table(name = "book")
+@Table(name = "book", indexes = {
+        @Index(name = "ux_book_isbn", columnList = "isbn", unique = true),
+        @Index(name = "ix_book_name_added_on", columnList = "name, addedOn"),
+        @Index(name = "ix_book_author_added_on", columnList = "author, addedOn, id"),
+        @Index(name = "ix_book_genre_added_on", columnList = "genre, addedOn, id"),
+        @Index(name = "ix_book_added_on", columnList = "addedOn")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Integer id; //Automatically generated ID for the book in the database (Primary)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
+    private Integer id; //Sequence generated ID for the book in the database (Primary), allows batched inserts
 
     @Column(nullable = false)
     private String name; //Name and or title of the book
@@ -45,8 +53,9 @@ public class Book {
     @Column(nullable = false)
     private String genre; //Genre of the book
 
-    @Column(nullable = false)
-    private String description; //Short description of the book
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, columnDefinition = "longblob")
+    private String description; //Short description of the book, stored compressed and not selected by the list endpoints (see BookSummary)
 
     @Column(nullable = false, updatable = false)
     private Timestamp addedOn; //Timestamp of the addition to the Database
@@ -54,8 +63,8 @@ public class Book {
     @Column(nullable = false)
     private Timestamp updatedOn; //Timestamp of the last update to the Database
 
-    @OneToMany
-    private List<Review> reviews = new ArrayList<>();
+    @Version
+    private long version; //Incremented by every update, used for optimistic locking (If-Match)
 
     /**
      * Constructor.
@@ -0,0 +1,20 @@
+package nl.rug.API.bookmanagement;
+
+import java.util.List;
+
+/**
+ * Body of a batch delete, books can be given by id, by isbn or both.
+ *
+ * @param ids   ids of the books to delete
+ * @param isbns isbns of the books to delete
+ */
+public record BookBatchDelete(List<Integer> ids, List<String> isbns) {
+
+    List<Integer> idsOrEmpty() {
+        return ids == null ? List.of() : ids;
+    }
+
+    List<String> isbnsOrEmpty() {
+        return isbns == null ? List.of() : isbns;
+    }
+}
@@ -0,0 +1,25 @@
+package nl.rug.API.bookmanagement;
+
+/**
+ * Result of one item of a batch request on books.
+ *
+ * @param index   position of the item in the request
+ * @param id      id of the book, null if the book does not exist
+ * @param isbn    isbn of the book
+ * @param outcome what happened to the item
+ * @param message reason if the item was not applied
+ */
+public record BookBatchResult(int index, Integer id, String isbn, Outcome outcome, String message) {
+
+    public enum Outcome {
+        CREATED, UPDATED, DELETED, NOT_FOUND, CONFLICT, INVALID
+    }
+
+    static BookBatchResult applied(int index, Integer id, String isbn, Outcome outcome) {
+        return new BookBatchResult(index, id, isbn, outcome, null);
+    }
+
+    static BookBatchResult rejected(int index, Integer id, String isbn, Outcome outcome, String message) {
+        return new BookBatchResult(index, id, isbn, outcome, message);
+    }
+}
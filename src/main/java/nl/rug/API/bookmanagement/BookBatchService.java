@@ -0,0 +1,230 @@
+package nl.rug.API.bookmanagement;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import nl.rug.API.common.CacheConfig;
+import nl.rug.API.common.CompressedTextConverter;
+import nl.rug.API.reviewmanagement.ReviewType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates, updates and deletes many books in one transaction.
+ * Existing books are looked up with one query per batch, inserts and updates are sent as JDBC batches
+ * and deletes are single set based statements. Every item of a batch gets its own result, items that can
+ * not be applied (unknown, duplicate or invalid books) do not fail the rest of the batch.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookBatchService {
+    private static final String UPDATE_BY_ISBN = "update book set name = :name, author = :author, published_year = :publishedYear,"
+            + " genre = :genre, description = :description, updated_on = :updatedOn, version = version + 1 where isbn = :isbn";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+
+    /**
+     * Inserts new books, books with an isbn that already exists are rejected.
+     *
+     * @param books the books to create
+     * @return one result per book, in the order of the request
+     */
+    @Transactional
+    public List<BookBatchResult> createBooks(List<BookDTO> books) {
+        Set<String> existing = new HashSet<>(findIdsByIsbn(isbnsOf(books)).keySet());
+        List<BookBatchResult> results = new ArrayList<>(books.size());
+        Map<Integer, Book> created = new LinkedHashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            BookDTO dto = books.get(i);
+            String invalid = validate(dto);
+            if (invalid != null) {
+                results.add(BookBatchResult.rejected(i, null, dto == null ? null : dto.isbn(), BookBatchResult.Outcome.INVALID, invalid));
+            } else if (!existing.add(dto.isbn())) {
+                results.add(BookBatchResult.rejected(i, null, dto.isbn(), BookBatchResult.Outcome.CONFLICT, "A book with this isbn already exists"));
+            } else {
+                Book book = new Book(dto.name(), dto.author(), dto.publishedYear(), dto.isbn(), dto.genre(), dto.description());
+                // Hibernate batches the inserts on flush (hibernate.jdbc.batch_size)
+                entityManager.persist(book);
+                created.put(i, book);
+                results.add(null);
+            }
+        }
+        entityManager.flush();
+        created.forEach((i, book) -> results.set(i, BookBatchResult.applied(i, book.getId(), book.getIsbn(), BookBatchResult.Outcome.CREATED)));
+        return results;
+    }
+
+    /**
+     * Updates existing books, the books are identified by their isbn.
+     * The update count of every statement of the JDBC batch is checked: a book that was deleted after it was looked up
+     * is reported as not found, like a second update of the same isbn in one batch is reported as a conflict.
+     *
+     * @param books the new values of the books
+     * @return one result per book, in the order of the request
+     */
+    @Transactional
+    public List<BookBatchResult> updateBooks(List<BookDTO> books) {
+        Map<String, Integer> ids = findIdsByIsbn(isbnsOf(books));
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<BookBatchResult> results = new ArrayList<>(books.size());
+        Set<String> updated = new HashSet<>();
+        List<SqlParameterSource> updates = new ArrayList<>();
+        List<Integer> updateIndexes = new ArrayList<>();
+        for (int i = 0; i < books.size(); i++) {
+            BookDTO dto = books.get(i);
+            String invalid = validate(dto);
+            Integer id = dto == null ? null : ids.get(dto.isbn());
+            if (invalid != null) {
+                results.add(BookBatchResult.rejected(i, id, dto == null ? null : dto.isbn(), BookBatchResult.Outcome.INVALID, invalid));
+            } else if (id == null) {
+                results.add(BookBatchResult.rejected(i, null, dto.isbn(), BookBatchResult.Outcome.NOT_FOUND, "Book not found"));
+            } else if (!updated.add(dto.isbn())) {
+                results.add(BookBatchResult.rejected(i, id, dto.isbn(), BookBatchResult.Outcome.CONFLICT, "The book is updated by another item of the batch"));
+            } else {
+                updates.add(new MapSqlParameterSource()
+                        .addValue("name", dto.name())
+                        .addValue("author", dto.author())
+                        .addValue("publishedYear", dto.publishedYear())
+                        .addValue("genre", dto.genre())
+                        .addValue("description", CompressedTextConverter.compress(dto.description()))
+                        .addValue("updatedOn", now)
+                        .addValue("isbn", dto.isbn()));
+                updateIndexes.add(i);
+                results.add(BookBatchResult.applied(i, id, dto.isbn(), BookBatchResult.Outcome.UPDATED));
+            }
+        }
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_BY_ISBN, updates.toArray(SqlParameterSource[]::new));
+            rejectUnapplied(results, updateIndexes, counts);
+        }
+        evict(ids);
+        return results;
+    }
+
+    /**
+     * Deletes books together with their reviews and rating totals.
+     *
+     * @param request the ids and isbns of the books
+     * @return one result per id followed by one result per isbn
+     */
+    @Transactional
+    public List<BookBatchResult> deleteBooks(BookBatchDelete request) {
+        List<Integer> ids = request.idsOrEmpty();
+        List<String> isbns = request.isbnsOrEmpty();
+        Map<String, Integer> found = new HashMap<>();
+        if (!ids.isEmpty() || !isbns.isEmpty()) {
+            jdbcTemplate.query("select id, isbn from book where id in (:ids) or isbn in (:isbns)",
+                    new MapSqlParameterSource()
+                            .addValue("ids", ids.isEmpty() ? List.of(-1) : ids)
+                            .addValue("isbns", isbns.isEmpty() ? List.of("") : isbns),
+                    rs -> {
+                        found.put(rs.getString("isbn"), rs.getInt("id"));
+                    });
+        }
+        Map<Integer, String> isbnById = new HashMap<>();
+        found.forEach((isbn, id) -> isbnById.put(id, isbn));
+
+        List<BookBatchResult> results = new ArrayList<>(ids.size() + isbns.size());
+        for (Integer id : ids) {
+            results.add(isbnById.containsKey(id)
+                    ? BookBatchResult.applied(results.size(), id, isbnById.get(id), BookBatchResult.Outcome.DELETED)
+                    : BookBatchResult.rejected(results.size(), id, null, BookBatchResult.Outcome.NOT_FOUND, "Book not found"));
+        }
+        for (String isbn : isbns) {
+            Integer id = found.get(isbn);
+            results.add(id != null
+                    ? BookBatchResult.applied(results.size(), id, isbn, BookBatchResult.Outcome.DELETED)
+                    : BookBatchResult.rejected(results.size(), null, isbn, BookBatchResult.Outcome.NOT_FOUND, "Book not found"));
+        }
+
+        if (!found.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", isbnById.keySet())
+                    .addValue("type", ReviewType.BOOK.name());
+            jdbcTemplate.update("delete from review where review_type = :type and media_id in (:ids)", params);
+            jdbcTemplate.update("delete from rating_aggregate where review_type = :type and media_id in (:ids)", params);
+            jdbcTemplate.update("delete from book where id in (:ids)", params);
+            evict(found);
+        }
+        return results;
+    }
+
+    private void rejectUnapplied(List<BookBatchResult> results, List<Integer> indexes, int[] counts) {
+        Set<String> missed = new HashSet<>();
+        for (int j = 0; j < counts.length; j++) {
+            // Statement.SUCCESS_NO_INFO (-2) is returned by drivers that rewrite the batch, the row was updated
+            if (counts[j] == 0) {
+                missed.add(results.get(indexes.get(j)).isbn());
+            }
+        }
+        if (missed.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> existing = findIdsByIsbn(missed);
+        for (int index : indexes) {
+            BookBatchResult result = results.get(index);
+            if (!missed.contains(result.isbn())) {
+                continue;
+            }
+            results.set(index, existing.containsKey(result.isbn())
+                    ? BookBatchResult.rejected(index, result.id(), result.isbn(), BookBatchResult.Outcome.CONFLICT, "The book was modified concurrently")
+                    : BookBatchResult.rejected(index, null, result.isbn(), BookBatchResult.Outcome.NOT_FOUND, "Book not found"));
+        }
+    }
+
+    private Map<String, Integer> findIdsByIsbn(Set<String> isbns) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (!isbns.isEmpty()) {
+            jdbcTemplate.query("select id, isbn from book where isbn in (:isbns)", Map.of("isbns", isbns),
+                    rs -> {
+                        ids.put(rs.getString("isbn"), rs.getInt("id"));
+                    });
+        }
+        return ids;
+    }
+
+    private static Set<String> isbnsOf(List<BookDTO> books) {
+        Set<String> isbns = new HashSet<>();
+        for (BookDTO book : books) {
+            if (book != null && book.isbn() != null) {
+                isbns.add(book.isbn());
+            }
+        }
+        return isbns;
+    }
+
+    private static String validate(BookDTO book) {
+        if (book == null) {
+            return "Book is missing";
+        }
+        if (book.isbn() == null || book.name() == null || book.author() == null || book.genre() == null || book.description() == null) {
+            return "name, author, isbn, genre and description are required";
+        }
+        return null;
+    }
+
+    private void evict(Map<String, Integer> books) {
+        // Applied after the commit, see CacheConfig
+        Cache byId = cacheManager.getCache(CacheConfig.BOOKS);
+        Cache byIsbn = cacheManager.getCache(CacheConfig.BOOK_ISBNS);
+        books.forEach((isbn, id) -> {
+            byId.evict(id);
+            byIsbn.evict(isbn);
+        });
+    }
+}
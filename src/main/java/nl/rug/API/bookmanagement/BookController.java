@@ -1,9 +1,17 @@
 package nl.rug.API.bookmanagement;
 
-import com.opencsv.exceptions.CsvValidationException;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import nl.rug.API.common.CursorPage;
+import nl.rug.API.common.Expand;
+import nl.rug.API.common.Keyset;
+import nl.rug.API.common.Versions;
+import nl.rug.API.reviewmanagement.ReviewSummary;
+import nl.rug.API.reviewmanagement.ReviewSort;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,14 +19,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
-import java.util.ArrayList;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -31,13 +42,19 @@ import java.util.List;
 @RequiredArgsConstructor
 @RequestMapping("/books")
 public class BookController {
+    private static final int MAX_RANDOM_BOOKS = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     //Service pattern initialisation
     private final BookService bookService;
+    private final BookImportJobService bookImportJobService;
+    private final BookBatchService bookBatchService;
 
     /**
      * <p>
      * Method to receive a list of books that might be limited by optional parameters
      * Endpoint associated with the method: ("/books")
+     * Books have to match all given parameters, most recently added books are returned first.
      * <p/>
      *
      * @param author(String): Author of a book and optional parameter to limit the list of books.
@@ -45,59 +62,58 @@ public class BookController {
      * @param id(Integer):    ID associated with a book and optional parameter to limit the list of books.
      * @param isbn(String):   ISBN associated with a book and optional parameter to limit the list of books.
      * @param title(String):  Title associated with a book and optional parameter to limit the list of books.
-     * @param limit(Integer): An integer that limits the list of book from the GET request.
-     * @return List<Book>: A possible return of a list of books.
+     * @param limit(Integer): An integer that limits the list of book from the GET request (page size, default 50).
+     * @param cursor(String): Token of the previous page, as returned in the X-Next-Cursor header.
+     * @param expand(String): Optional "reviews" to include the summaries of the reviews of every book.
+     * @return List<BookView>: A possible return of a list of books, without their descriptions.
      */
     @GetMapping
-    public List<Book> getAllBooks(
+    public ResponseEntity<List<BookView>> getAllBooks(
             @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "author", required = false) String author,
             @RequestParam(value = "id", required = false) Integer id,
             @RequestParam(value = "title", required = false) String title,
             @RequestParam(value = "isbn", required = false) String isbn,
-            @RequestParam(value = "genre", required = false) String genre) {
-
-        // Initialize an empty list to collect books
-        List<Book> books = new ArrayList<>();
-
-        // Check if any filtering parameters are provided
-        boolean hasFilters = (id != null || title != null || isbn != null || author != null || genre != null);
-
-        // Collect results based on provided parameters
-        if (id != null) {
-            books.add(bookService.getBookById(id));
-        }
+            @RequestParam(value = "genre", required = false) String genre,
+            @RequestParam(value = "expand", required = false) String expand) {
 
-        if (title != null) {
-            books.add(bookService.getBookByName(title));
-        }
-
-        if (isbn != null) {
-            books.add(bookService.getBookByIsbn(isbn));
-        }
-
-        if (author != null) {
-            books.addAll(bookService.getBooksByAuthor(author));
-        }
+        // All provided filters are combined into one query
+        BookFilter filter = new BookFilter(id, title, isbn, author, genre);
+        boolean withReviews = Expand.parse(expand, "reviews").contains("reviews");
+        CursorPage<BookView> page = bookService.getBooks(filter, withReviews, cursor, Keyset.limit(limit));
 
-        if (genre != null) {
-            books.addAll(bookService.getBooksByGenre(genre));
+        if (page.items().isEmpty() && cursor == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No books found");
         }
 
-        // If no filters were applied, get all books
-        if (!hasFilters) {
-            books.addAll(bookService.getAllBooks(null)); // Handle Optional correctly
-        }
+        return page.toResponse();
+    }
 
-        // Apply limit if provided
-        if (limit != null && books.size() > limit) {
-            books = books.subList(0, limit);
+    /**
+     * <p>
+     * Method to receive random books, for example for the "discover" widgets.
+     * Endpoint associated with the method: ("/books/random")
+     * <p/>
+     * The books are not sampled exactly uniformly: a random id that misses too often is moved to the next
+     * existing book, so books right after a gap in the ids (deleted books, or books of other genres if
+     * a genre is given) are returned more often than others.
+     * <p/>
+     *
+     * @param genre(String):  Optional genre of the books.
+     * @param count(Integer): Number of distinct books to return, 1 if not given.
+     * @return List<Book>: A list of random books.
+     */
+    @GetMapping("/random")
+    public List<Book> getRandomBooks(@RequestParam(value = "genre", required = false) String genre,
+                                     @RequestParam(value = "count", defaultValue = "1") int count) {
+        if (count <= 0 || count > MAX_RANDOM_BOOKS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Count must be between 1 and " + MAX_RANDOM_BOOKS);
         }
-
+        List<Book> books = bookService.getRandomBooks(genre, count);
         if (books.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No books found");
         }
-
         return books;
     }
 
@@ -117,7 +133,7 @@ public class BookController {
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Book addBook(@RequestBody BookDTO bookDTO) {
+    public Book addBook(@RequestBody @Valid BookDTO bookDTO) {
         Book book = new Book(
                 bookDTO.name(),
                 bookDTO.author(),
@@ -131,7 +147,8 @@ public class BookController {
 
     @PutMapping("/updateByIsbn/{isbn}")
     @ResponseStatus(HttpStatus.OK)
-    public Book updateBook(@PathVariable String isbn, @RequestBody BookDTO bookDTO) {
+    public Book updateBook(@PathVariable String isbn, @RequestBody @Valid BookDTO bookDTO,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Book book = new Book(
                 bookDTO.name(),
                 bookDTO.author(),
@@ -140,12 +157,13 @@ public class BookController {
                 bookDTO.genre(),
                 bookDTO.description());
 
-        return bookService.updateBook(isbn, book);
+        return bookService.updateBook(isbn, book, Versions.fromIfMatch(ifMatch));
     }
 
     @PutMapping("/updateById/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public Book updateBook(@PathVariable int id, @RequestBody BookDTO bookDTO) {
+    public Book updateBook(@PathVariable int id, @RequestBody @Valid BookDTO bookDTO,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Book book = new Book(
                 bookDTO.name(),
                 bookDTO.author(),
@@ -154,7 +172,7 @@ public class BookController {
                 bookDTO.genre(),
                 bookDTO.description());
 
-        return bookService.updateBook(id, book);
+        return bookService.updateBook(id, book, Versions.fromIfMatch(ifMatch));
     }
 
     @DeleteMapping("/deleteByIsbn/{isbn}")
@@ -169,6 +187,77 @@ public class BookController {
         bookService.deleteBook(id);
     }
 
+    /**
+     * <p>
+     * Method to add many books in one transaction.
+     * Endpoint associated with the method: ("/books/batch")
+     * <p/>
+     *
+     * @param books(List): The books to add, at most 1000.
+     * @return List<BookBatchResult>: The result of every book, books with an existing isbn are rejected.
+     */
+    @PostMapping("/batch")
+    public List<BookBatchResult> addBooks(@RequestBody List<BookDTO> books) {
+        checkBatchSize(books.size());
+        return bookBatchService.createBooks(books);
+    }
+
+    /**
+     * <p>
+     * Method to update many books, identified by their isbn, in one transaction.
+     * Endpoint associated with the method: ("/books/batch")
+     * <p/>
+     *
+     * @param books(List): The new values of the books, at most 1000.
+     * @return List<BookBatchResult>: The result of every book.
+     */
+    @PutMapping("/batch")
+    public List<BookBatchResult> updateBooks(@RequestBody List<BookDTO> books) {
+        checkBatchSize(books.size());
+        return bookBatchService.updateBooks(books);
+    }
+
+    /**
+     * <p>
+     * Method to delete many books in one transaction.
+     * Endpoint associated with the method: ("/books/batch")
+     * <p/>
+     *
+     * @param request(BookBatchDelete): The ids and/or isbns of the books, at most 1000 in total.
+     * @return List<BookBatchResult>: The result of every id followed by the result of every isbn.
+     */
+    @DeleteMapping("/batch")
+    public List<BookBatchResult> deleteBooks(@RequestBody BookBatchDelete request) {
+        checkBatchSize(request.idsOrEmpty().size() + request.isbnsOrEmpty().size());
+        return bookBatchService.deleteBooks(request);
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size == 0 || size > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch must contain between 1 and " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    /**
+     * <p>
+     * Method to receive the reviews of a book, one page at a time.
+     * Endpoint associated with the method: ("/books/{id}/reviews")
+     * <p/>
+     *
+     * @param id(int):        ID of the book.
+     * @param sort(String):   Optional order, date (newest first, default) or rating (best first).
+     * @param limit(Integer): Optional page size, 50 if not given.
+     * @param cursor(String): Token of the previous page, as returned in the X-Next-Cursor header.
+     * @return List<ReviewSummary>: A page of reviews of the book, without their texts.
+     */
+    @GetMapping("/{id}/reviews")
+    public ResponseEntity<List<ReviewSummary>> getBookReviews(@PathVariable int id,
+                                                       @RequestParam(value = "sort", required = false) String sort,
+                                                       @RequestParam(value = "limit", required = false) Integer limit,
+                                                       @RequestParam(value = "cursor", required = false) String cursor) {
+        return bookService.getBookReviews(id, ReviewSort.fromParameter(sort), cursor, Keyset.limit(limit)).toResponse();
+    }
+
     @GetMapping("/{id}/rating")
     public double getBookRating(@PathVariable int id) {
         return bookService.getBookRating(id);
@@ -178,62 +267,103 @@ public class BookController {
      * <p>
      * Method to import a book(s) to the DataBase.
      * Endpoint associated with the method: ("/books/import")
+     * The import runs in the background, its progress is available on the Location of the response.
      * <p/>
      *
-     * @param filePath(String): Filepath where the file that needs importing is kept.
-     * @param format(String):   The format in which the filepath is written in.
-     * @return
+     * @param filePath(String):   Filepath where the file that needs importing is kept.
+     * @param format(String):     The format in which the filepath is written in (csv, json or ndjson).
+     * @param chunkSize(Integer): Optional number of books committed per transaction.
+     * @param parallel(Boolean):  Parse a local csv file on all cores.
+     * @param ordered(Boolean):   Write the books of a parallel import in the order of the file (default true).
+     * @return ImportJob: The queued import job.
      */
     @PostMapping("/import")
-    public ResponseEntity<String> importBooks(@RequestParam(value = "file") String filePath, @RequestParam(value = "format") String format) throws IOException, CsvValidationException {
-        if (format.equals("csv")) {
-            try {
-                bookService.importBooksCsv(filePath);
-            } catch (IOException e) {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("Error importing books: " + e.getMessage());
-            }
-        } else if (format.equals("json")) {
-            try {
-                bookService.importBooksJson(filePath);
-            } catch (IOException e) {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("Error importing books: " + e.getMessage());
-            }
-        } else {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid format specified. Use 'json' or 'csv'");
+    public ResponseEntity<ImportJob> importBooks(@RequestParam(value = "file") String filePath,
+                                                 @RequestParam(value = "format") String format,
+                                                 @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+                                                 @RequestParam(value = "parallel", defaultValue = "false") boolean parallel,
+                                                 @RequestParam(value = "ordered", defaultValue = "true") boolean ordered) {
+        if (!format.equals("csv") && !format.equals("json") && !format.equals("ndjson")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid format specified. Use 'json', 'ndjson' or 'csv'");
         }
-        return null;
+        if (chunkSize != null && chunkSize <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Chunk size must be positive");
+        }
+        if (parallel && !format.equals("csv")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parallel imports are only supported for csv files");
+        }
+        ImportJob job;
+        try {
+            job = bookImportJobService.submit(filePath, format, chunkSize, parallel, ordered);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many imports are queued, try again later");
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/books/import/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * <p>
+     * Method to receive the progress of an import.
+     * Endpoint associated with the method: ("/books/import/{jobId}")
+     * <p/>
+     *
+     * @param jobId(String): The id of the import job.
+     * @return ImportJob: Status, rows parsed, rows written, throughput and errors of the import.
+     */
+    @GetMapping("/import/{jobId}")
+    public ImportJob getImportJob(@PathVariable String jobId) {
+        return bookImportJobService.getJob(jobId);
+    }
+
+    @GetMapping("/import")
+    public Collection<ImportJob> getImportJobs() {
+        return bookImportJobService.getJobs();
+    }
+
+    /**
+     * <p>
+     * Method to cancel an import, chunks that were already committed are kept.
+     * Endpoint associated with the method: ("/books/import/{jobId}")
+     * <p/>
+     *
+     * @param jobId(String): The id of the import job.
+     * @return ImportJob: The status of the import.
+     */
+    @DeleteMapping("/import/{jobId}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportJob cancelImportJob(@PathVariable String jobId) {
+        return bookImportJobService.cancel(jobId);
     }
 
     /**
      * <p>
      * Method to export book(s) from the DataBase.
      * Endpoint associated with the method: ("/books/export")
+     * The books are streamed to the client while they are read from the database.
      * <p/>
      *
      * @param format(String): The format in which the filepath needs to be written in.
-     * @return String: List of books in the form of a Json/CSV parsed string.
+     * @return StreamingResponseBody: List of books in the form of a Json/CSV stream.
      */
     @GetMapping("/export")
-    public ResponseEntity<String> exportBooks(@RequestParam(value = "format") String format) throws IOException {
-
-        List<Book> books = bookService.getAllBooks(null);
-        if (books.isEmpty()) {
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(value = "format") String format) {
+        if (!format.equals("csv") && !format.equals("json")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid format specified. Use 'json' or 'csv'");
+        }
+        if (!bookService.hasBooks()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No books are stored inside the DB");
         }
 
         if (format.equals("csv")) {
-            String content = bookService.exportBooksCsv(books);
-            if (content.isEmpty()) {
-                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No books are stored inside the DB");
-            }
-            HttpHeaders headers = new HttpHeaders();
-            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books.csv");
-            return new ResponseEntity<>(content, headers, HttpStatus.OK);
-        } else if (format.equals("json")) {
-            return new ResponseEntity<>(bookService.exportBooksJson(books), HttpStatus.OK);
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books.csv")
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .body(bookService::exportBooksCsv);
         }
-        return null;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(bookService::exportBooksJson);
     }
 }
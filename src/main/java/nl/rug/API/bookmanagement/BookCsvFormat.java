@@ -0,0 +1,92 @@
+package nl.rug.API.bookmanagement;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.RFC4180ParserBuilder;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Column layout of the book CSV files used by the import and export endpoints.
+ * The importer accepts both the exported layout (with id and timestamps) and the
+ * legacy layout that starts directly with the name column.
+ * Files are read as RFC 4180: quotes are escaped by doubling them (as the export writes them) and a backslash
+ * is an ordinary character, which is also what {@link CsvSegments} assumes when it splits a file.
+ */
+final class BookCsvFormat {
+    /**
+     * Header written by the export.
+     */
+    static final String[] HEADER = {"id", "name", "author", "publishedYear", "isbn", "genre", "description", "addedOn", "updatedOn"};
+
+    private static final List<String> IMPORTED_COLUMNS = List.of("name", "author", "publishedYear", "isbn", "genre", "description");
+
+    private final int[] columns;
+
+    private BookCsvFormat(int[] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Creates a reader for a book CSV file.
+     *
+     * @param in the content of the file
+     * @return the reader, to be closed by the caller
+     */
+    static CSVReader reader(Reader in) {
+        return new CSVReaderBuilder(in)
+                .withCSVParser(new RFC4180ParserBuilder().build())
+                .build();
+    }
+
+    /**
+     * Resolves the column positions from the header line of a CSV file.
+     *
+     * @param header the first line of the file
+     * @return the format to use for the remaining lines
+     */
+    static BookCsvFormat fromHeader(String[] header) {
+        List<String> names = header == null ? List.of() : Arrays.stream(header).map(String::trim).toList();
+        if (!names.contains("name")) {
+            // Legacy layout: name, author, publishedYear, isbn, genre, description
+            return new BookCsvFormat(new int[]{0, 1, 2, 3, 4, 5});
+        }
+        int[] columns = new int[IMPORTED_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(IMPORTED_COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new IllegalArgumentException("Missing CSV column: " + IMPORTED_COLUMNS.get(i));
+            }
+        }
+        return new BookCsvFormat(columns);
+    }
+
+    /**
+     * Maps one CSV line to a new (not yet persisted) book.
+     *
+     * @param line the values of the line
+     * @return Book object
+     */
+    Book toBook(String[] line) {
+        Book book = new Book();
+        book.setName(line[columns[0]]);
+        book.setAuthor(line[columns[1]]);
+        book.setPublishedYear(Integer.parseInt(line[columns[2]].trim()));
+        book.setIsbn(line[columns[3]]);
+        book.setGenre(line[columns[4]]);
+        book.setDescription(line[columns[5]]);
+        return book;
+    }
+
+    /**
+     * Maps a book to one line of the exported CSV.
+     *
+     * @param book the book to write
+     * @return the values of the line
+     */
+    static String[] toLine(Book book) {
+        return new String[]{String.valueOf(book.getId()), book.getName(), book.getAuthor(), String.valueOf(book.getPublishedYear()), book.getIsbn(), book.getGenre(), book.getDescription(), String.valueOf(book.getAddedOn()), String.valueOf(book.getUpdatedOn())};
+    }
+}
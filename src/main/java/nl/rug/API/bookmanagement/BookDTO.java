@@ -1,5 +1,7 @@
 package nl.rug.API.bookmanagement;
 
+import jakarta.validation.constraints.NotNull;
+
 /**
  * DTO for Books.
  * @param name          asd
@@ -9,10 +11,10 @@ package nl.rug.API.bookmanagement;
  * @param genre         asd
  * @param description   asd
  */
-public record BookDTO(String name,
-                      String author,
+public record BookDTO(@NotNull String name,
+                      @NotNull String author,
                       int publishedYear,
-                      String isbn,
-                      String genre,
-                      String description) {
+                      @NotNull String isbn,
+                      @NotNull String genre,
+                      @NotNull String description) {
 }
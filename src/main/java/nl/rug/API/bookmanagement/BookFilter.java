@@ -0,0 +1,50 @@
+package nl.rug.API.bookmanagement;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional filters of the book list. All given filters have to match (intersection).
+ *
+ * @param id     id of the book, may be null
+ * @param title  name of the book, may be null
+ * @param isbn   isbn of the book, may be null
+ * @param author author of the book, may be null
+ * @param genre  genre of the book, may be null
+ */
+public record BookFilter(Integer id,
+                         String title,
+                         String isbn,
+                         String author,
+                         String genre) {
+
+    /**
+     * Method to combine the given filters into a single where clause.
+     *
+     * @return Specification matching the books that satisfy all filters
+     */
+    public Specification<Book> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (id != null) {
+                predicates.add(cb.equal(root.get("id"), id));
+            }
+            if (title != null) {
+                predicates.add(cb.equal(root.get("name"), title));
+            }
+            if (isbn != null) {
+                predicates.add(cb.equal(root.get("isbn"), isbn));
+            }
+            if (author != null) {
+                predicates.add(cb.equal(root.get("author"), author));
+            }
+            if (genre != null) {
+                predicates.add(cb.equal(root.get("genre"), genre));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
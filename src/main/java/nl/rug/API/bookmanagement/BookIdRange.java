@@ -0,0 +1,19 @@
+package nl.rug.API.bookmanagement;
+
+/**
+ * Lowest and highest id of a set of books.
+ *
+ * @param min lowest id, null if the set is empty
+ * @param max highest id, null if the set is empty
+ */
+public record BookIdRange(Integer min, Integer max) {
+
+    /**
+     * Method to check if the range contains any book.
+     *
+     * @return true if there are no books
+     */
+    public boolean isEmpty() {
+        return min == null || max == null;
+    }
+}
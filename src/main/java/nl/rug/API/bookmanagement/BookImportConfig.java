@@ -0,0 +1,40 @@
+package nl.rug.API.bookmanagement;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executor of the background book imports.
+ * The pool and its queue are bounded, so imports never use the request threads of the web server
+ * and a burst of submissions is rejected instead of piling up.
+ * CSV files imported in parallel mode are parsed on a separate fork/join pool, see {@link ParallelCsvImporter}.
+ */
+@Configuration
+public class BookImportConfig {
+    public static final String IMPORT_EXECUTOR = "bookImportExecutor";
+    public static final String PARSE_POOL = "bookParsePool";
+
+    @Bean(IMPORT_EXECUTOR)
+    public ThreadPoolTaskExecutor bookImportExecutor(@Value("${books.import.threads:2}") int threads,
+                                                     @Value("${books.import.queue-capacity:16}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("book-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * @param threads the number of parse threads, all available processors if 0
+     */
+    @Bean(name = PARSE_POOL, destroyMethod = "shutdownNow")
+    public ForkJoinPool bookParsePool(@Value("${books.import.parallel.threads:0}") int threads) {
+        return new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+}
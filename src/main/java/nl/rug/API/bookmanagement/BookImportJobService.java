@@ -0,0 +1,118 @@
+package nl.rug.API.bookmanagement;
+
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs book imports as background jobs on the import executor (see {@link BookImportConfig})
+ * and keeps their status in memory. Finished jobs are forgotten after the configured retention.
+ */
+@Slf4j
+@Service
+public class BookImportJobService {
+    private final BookService bookService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Duration retention;
+    private final int defaultChunkSize;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BookImportJobService(BookService bookService,
+                                @Qualifier(BookImportConfig.IMPORT_EXECUTOR) ThreadPoolTaskExecutor executor,
+                                @Value("${books.import.job-retention:1h}") Duration retention,
+                                @Value("${books.import.chunk-size:1000}") int defaultChunkSize) {
+        this.bookService = bookService;
+        this.executor = executor;
+        this.retention = retention;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * Queues an import.
+     *
+     * @param filePath  the file to import
+     * @param format    csv, json or ndjson
+     * @param chunkSize the number of books committed per transaction, books.import.chunk-size if null
+     * @param parallel  whether a csv file is parsed on all cores
+     * @param ordered   whether a file parsed in parallel is written in the order of the file
+     * @return the queued job
+     * @throws org.springframework.core.task.TaskRejectedException if the import queue is full
+     */
+    public ImportJob submit(String filePath, String format, Integer chunkSize, boolean parallel, boolean ordered) {
+        if (chunkSize != null && chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        purgeFinishedJobs();
+        ImportJob job = new ImportJob(filePath, format, chunkSize == null ? defaultChunkSize : chunkSize, parallel, ordered);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public ImportJob getJob(String id) {
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new EntityNotFoundException("Import job not found");
+        }
+        return job;
+    }
+
+    public Collection<ImportJob> getJobs() {
+        return jobs.values();
+    }
+
+    /**
+     * Cancels an import, books of already committed chunks stay in the database.
+     *
+     * @param id the id of the job
+     * @return the job
+     */
+    public ImportJob cancel(String id) {
+        ImportJob job = getJob(id);
+        job.cancel();
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        if (job.isCancelled()) {
+            job.finished(ImportJob.Status.CANCELLED, null);
+            return;
+        }
+        job.started();
+        try {
+            if (job.isParallel()) {
+                bookService.importBooksCsvParallel(job.getFile(), job.getChunkSize(), job.isOrdered(), job);
+            } else if (job.getFormat().equals("csv")) {
+                bookService.importBooksCsv(job.getFile(), job.getChunkSize(), job);
+            } else {
+                bookService.importBooksJson(job.getFile(), job.getChunkSize(), job);
+            }
+            job.finished(ImportJob.Status.COMPLETED, null);
+        } catch (CancellationException e) {
+            job.finished(ImportJob.Status.CANCELLED, e.getMessage());
+        } catch (Exception e) {
+            log.warn("Import job {} of {} failed", job.getId(), job.getFile(), e);
+            job.finished(ImportJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void purgeFinishedJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(threshold));
+    }
+}
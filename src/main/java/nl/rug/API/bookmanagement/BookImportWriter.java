@@ -0,0 +1,51 @@
+package nl.rug.API.bookmanagement;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes imported books to the database one chunk at a time.
+ * Every chunk runs in its own transaction and the persistence context is flushed and cleared
+ * afterwards, so the memory used by an import does not grow with the size of the file.
+ * The inserts of a chunk are sent as JDBC batches (see hibernate.jdbc.batch_size).
+ */
+@Component
+@RequiredArgsConstructor
+public class BookImportWriter {
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final BookTransferMetrics bookTransferMetrics;
+
+    /**
+     * Persists a chunk of books and commits it.
+     *
+     * @param books the books to insert, the list is not modified
+     * @return the number of books written
+     */
+    public int writeChunk(List<Book> books) {
+        if (books.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (Book book : books) {
+                // Imported files may contain ids and timestamps of another database
+                book.setId(null);
+                if (book.getAddedOn() == null) {
+                    book.setAddedOn(now);
+                }
+                book.setUpdatedOn(now);
+                entityManager.persist(book);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        bookTransferMetrics.rowsImported(books.size());
+        return books.size();
+    }
+}
@@ -1,16 +1,24 @@
 package nl.rug.API.bookmanagement;
 
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
- * Interface containing the repository layer of the Design pattern. It extends the already existing CrudRepository methods.
+ * Interface containing the repository layer of the Design pattern. It extends the already existing JpaRepository (CRUD and paging) and JpaSpecificationExecutor methods.
  */
 @Repository
-public interface BookRepository extends CrudRepository<Book, Integer> {
+public interface BookRepository extends JpaRepository<Book, Integer>, JpaSpecificationExecutor<Book> {
     /**
      * Method to find a book or a list of books by the author parameter
      *
@@ -44,4 +52,94 @@ public interface BookRepository extends CrudRepository<Book, Integer> {
     Optional<Book> findByNameOrderByAddedOnDesc(String name);
 
     void deleteBookByIsbn(String isbn);
+
+    /**
+     * Method to stream all books through a database cursor, used by the export.
+     * The stream has to be consumed and closed inside a transaction.
+     *
+     * @return Stream of all books ordered by id
+     */
+    @Query("select b from Book b order by b.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Book> streamAll();
+
+    /**
+     * Method to find the book with the lowest id, used to check if any book is stored.
+     *
+     * @return a possible book
+     */
+    Optional<Book> findFirstByOrderByIdAsc();
+
+    /**
+     * Method to find the lowest and highest id of the books.
+     * Both values are read from the edges of the primary key, used for random sampling.
+     *
+     * @return the id range, with null bounds if there are no books
+     */
+    @Query("select new nl.rug.API.bookmanagement.BookIdRange(min(b.id), max(b.id)) from Book b")
+    BookIdRange findIdRange();
+
+    /**
+     * Method to find the lowest and highest id of the books of a genre.
+     * Both values are read from the edges of the genre index, used for random sampling.
+     *
+     * @param genre: Genre of the books.
+     * @return the id range, with null bounds if there are no books
+     */
+    @Query("select new nl.rug.API.bookmanagement.BookIdRange(min(b.id), max(b.id)) from Book b where b.genre = :genre")
+    BookIdRange findIdRangeByGenre(String genre);
+
+    /**
+     * Method to find the book with the lowest id that is greater than or equal to the given id.
+     *
+     * @param id: Lower bound of the id.
+     * @return a possible book
+     */
+    Optional<Book> findFirstByIdGreaterThanEqualOrderByIdAsc(Integer id);
+
+    /**
+     * Method to find the book of a genre with the lowest id that is greater than or equal to the given id.
+     *
+     * @param genre: Genre of the book.
+     * @param id:    Lower bound of the id.
+     * @return a possible book
+     */
+    Optional<Book> findFirstByGenreAndIdGreaterThanEqualOrderByIdAsc(String genre, Integer id);
+
+    /**
+     * Method to update a book in a single statement, without reading it first.
+     *
+     * @param id:      ID of the book.
+     * @param book:    The new values of the book.
+     * @param version: The expected version of the book, any version if null.
+     * @param now:     The update timestamp.
+     * @return the number of updated books, 0 if the book does not exist or has another version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.name = :#{#book.name}, b.author = :#{#book.author}, b.publishedYear = :#{#book.publishedYear}, "
+            + "b.isbn = :#{#book.isbn}, b.genre = :#{#book.genre}, b.description = :#{#book.description}, "
+            + "b.updatedOn = :now, b.version = b.version + 1 "
+            + "where b.id = :id and (:version is null or b.version = :version)")
+    int updateById(int id, Book book, Long version, Timestamp now);
+
+    /**
+     * Method to update a book, found by its isbn, in a single statement.
+     *
+     * @param isbn:    ISBN of the book.
+     * @param book:    The new values of the book.
+     * @param version: The expected version of the book, any version if null.
+     * @param now:     The update timestamp.
+     * @return the number of updated books, 0 if the book does not exist or has another version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.name = :#{#book.name}, b.author = :#{#book.author}, b.publishedYear = :#{#book.publishedYear}, "
+            + "b.isbn = :#{#book.isbn}, b.genre = :#{#book.genre}, b.description = :#{#book.description}, "
+            + "b.updatedOn = :now, b.version = b.version + 1 "
+            + "where b.isbn = :isbn and (:version is null or b.version = :version)")
+    int updateByIsbn(String isbn, Book book, Long version, Timestamp now);
+
+    boolean existsByIsbn(String isbn);
 }
@@ -1,9 +1,13 @@
 package nl.rug.API.bookmanagement;
 
 import com.opencsv.exceptions.CsvValidationException;
+import nl.rug.API.common.CursorPage;
+import nl.rug.API.reviewmanagement.ReviewSort;
+import nl.rug.API.reviewmanagement.ReviewSummary;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -27,6 +31,17 @@ public interface BookService {
      */
     Book updateBook(int id, Book updatedBook);
 
+    /**
+     * Method to update a book by the id parameter in a single statement.
+     *
+     * @param id          Entity of the Book object from which a book can be searched for.
+     * @param updatedBook object which contains the updated version.
+     * @param version     expected version of the book (If-Match), any version if null.
+     * @return Book object
+     * @throws jakarta.persistence.OptimisticLockException if the book has another version
+     */
+    Book updateBook(int id, Book updatedBook, Long version);
+
     /**
      * Method to update a book or a list of books by the isbn parameter.
      *
@@ -36,6 +51,17 @@ public interface BookService {
      */
     Book updateBook(String isbn, Book updatedBook);
 
+    /**
+     * Method to update a book by the isbn parameter in a single statement.
+     *
+     * @param isbn        Entity of the Book object from which a book can be searched for
+     * @param updatedBook Book object which contains the updated version.
+     * @param version     expected version of the book (If-Match), any version if null.
+     * @return Book object
+     * @throws jakarta.persistence.OptimisticLockException if the book has another version
+     */
+    Book updateBook(String isbn, Book updatedBook, Long version);
+
     /**
      * Method to find a book or a list of books by the id parameter
      *
@@ -77,11 +103,18 @@ public interface BookService {
     List<Book> getBooksByGenre(String genre);
 
     /**
-     * Method to recieve a list of books possibly limited by the limit parameter.
+     * Method to recieve one page of books matching all given filters, most recently added first.
+     * The filters, ordering and limit are executed as a single database query.
      *
-     * @return a possible list of book objects.
+     * The reviews of all books of the page are read with one more query if they are expanded.
+     *
+     * @param filter      the filters to apply, a filter without values for all books.
+     * @param withReviews whether the review summaries of the books are included.
+     * @param cursor      token of the previous page, null for the first page.
+     * @param limit       the page size.
+     * @return the page of book summaries (without description) and the token of the next page.
      */
-    List<Book> getAllBooks(Integer limit);
+    CursorPage<BookView> getBooks(BookFilter filter, boolean withReviews, String cursor, int limit);
 
     /**
      * Method to recieve a random book.
@@ -90,6 +123,15 @@ public interface BookService {
      */
     Book getRandomBook();
 
+    /**
+     * Method to recieve distinct random books, sampled without scanning the book table.
+     *
+     * @param genre genre of the books, null for any genre.
+     * @param count number of books to return.
+     * @return a list of at most count distinct books, fewer if not enough books were found.
+     */
+    List<Book> getRandomBooks(String genre, int count);
+
     /**
      * Method to delete a book by the id parameter
      *
@@ -105,18 +147,72 @@ public interface BookService {
     void deleteBook(String isbn);
 
     /**
-     * Method to import a book or a list of books from a json file.
+     * Method to import a book or a list of books from a json file, using the configured chunk size.
      *
      * @param filePath: json file that need to be imported.
+     * @return number of imported books
      */
-    void importBooksJson(String filePath) throws IOException;
+    long importBooksJson(String filePath) throws IOException;
 
     /**
-     * Method to import a book or a list of books from a csv file.
+     * Method to import a book or a list of books from a json file.
+     * The file may contain a json array of books or newline delimited json (one book per line).
+     * Books are read one at a time and every chunk of books is committed in its own transaction.
+     *
+     * @param filePath:  json or ndjson file that need to be imported.
+     * @param chunkSize: number of books written per transaction.
+     * @return number of imported books
+     */
+    long importBooksJson(String filePath, int chunkSize) throws IOException;
+
+    /**
+     * Method to import a book or a list of books from a json or ndjson file, reporting the progress.
+     *
+     * @param filePath:  json or ndjson file that need to be imported.
+     * @param chunkSize: number of books written per transaction.
+     * @param progress:  receives the progress and can cancel the import between chunks.
+     * @return number of imported books
+     */
+    long importBooksJson(String filePath, int chunkSize, ImportProgress progress) throws IOException;
+
+    /**
+     * Method to import a book or a list of books from a csv file, using the configured chunk size.
      *
      * @param filePath: csv file that need to be imported.
+     * @return number of imported books
      */
-    void importBooksCsv(String filePath) throws IOException, CsvValidationException;
+    long importBooksCsv(String filePath) throws IOException, CsvValidationException;
+
+    /**
+     * Method to import a book or a list of books from a csv file.
+     * The file is streamed and every chunk of books is committed in its own transaction.
+     *
+     * @param filePath:  csv file that need to be imported.
+     * @param chunkSize: number of books written per transaction.
+     * @return number of imported books
+     */
+    long importBooksCsv(String filePath, int chunkSize) throws IOException, CsvValidationException;
+
+    /**
+     * Method to import a book or a list of books from a csv file, reporting the progress.
+     *
+     * @param filePath:  csv file that need to be imported.
+     * @param chunkSize: number of books written per transaction.
+     * @param progress:  receives the progress, invalid rows and can cancel the import between chunks.
+     * @return number of imported books
+     */
+    long importBooksCsv(String filePath, int chunkSize, ImportProgress progress) throws IOException, CsvValidationException;
+
+    /**
+     * Method to import a csv file by parsing it on all cores, the file has to be on the local file system.
+     *
+     * @param filePath:  csv file that need to be imported.
+     * @param chunkSize: number of books written per transaction.
+     * @param ordered:   whether the books are written in the order of the file.
+     * @param progress:  receives the progress, invalid rows and can cancel the import between chunks.
+     * @return number of imported books
+     */
+    long importBooksCsvParallel(String filePath, int chunkSize, boolean ordered, ImportProgress progress) throws IOException, CsvValidationException;
 
     /**
      * Method to export a book or a list of books.
@@ -134,5 +230,39 @@ public interface BookService {
      */
     String exportBooksCsv(List<Book> books) throws IOException;
 
+    /**
+     * Method to stream all books in the csv format.
+     *
+     * @param out: stream the books are written to.
+     * @return number of exported books
+     */
+    long exportBooksCsv(OutputStream out) throws IOException;
+
+    /**
+     * Method to stream all books as a json array.
+     *
+     * @param out: stream the books are written to.
+     * @return number of exported books
+     */
+    long exportBooksJson(OutputStream out) throws IOException;
+
+    /**
+     * Method to check whether any book is stored.
+     *
+     * @return true if there is at least one book
+     */
+    boolean hasBooks();
+
     double getBookRating(int id);
+
+    /**
+     * Method to receive one page of the reviews of a book.
+     *
+     * @param id     ID of the book.
+     * @param sort   newest or best rated first.
+     * @param cursor token of the previous page, null for the first page.
+     * @param limit  page size.
+     * @return page of review summaries
+     */
+    CursorPage<ReviewSummary> getBookReviews(int id, ReviewSort sort, String cursor, int limit);
 }
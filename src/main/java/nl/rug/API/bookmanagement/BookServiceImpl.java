@@ -1,28 +1,55 @@
 package nl.rug.API.bookmanagement;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
-import nl.rug.API.reviewmanagement.Review;
+import nl.rug.API.common.CacheConfig;
+import nl.rug.API.common.CursorPage;
+import nl.rug.API.common.Keyset;
+import nl.rug.API.reviewmanagement.RatingAggregateService;
+import nl.rug.API.reviewmanagement.ReviewService;
+import nl.rug.API.reviewmanagement.ReviewSort;
+import nl.rug.API.reviewmanagement.ReviewSummary;
+import nl.rug.API.reviewmanagement.ReviewType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
+import java.io.BufferedWriter;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
 
 
 /**
@@ -35,69 +62,138 @@ public class BookServiceImpl implements BookService {
     private final BookRepository bookRepository;
     private final ResourceLoader resourceLoader;
     private final ObjectMapper objectMapper;
+    private final BookImportWriter bookImportWriter;
+    private final ParallelCsvImporter parallelCsvImporter;
+    private final EntityManager entityManager;
+    private final RatingAggregateService ratingAggregateService;
+    private final ReviewService reviewService;
+    private final CacheManager cacheManager;
+    private final BookTransferMetrics bookTransferMetrics;
+
+    private static final int RANDOM_ATTEMPTS_PER_BOOK = 4;
+
+    @Value("${books.import.chunk-size:1000}")
+    private int importChunkSize;
 
     @Override
     @Transactional
     public Book addBook(@RequestBody Book book) {
-        // Implementation
-        bookRepository.save(book);
-        book.setUpdatedOn(new Timestamp(System.currentTimeMillis()));
-        book.setAddedOn(new Timestamp(System.currentTimeMillis()));
-        return book;
+        // Timestamps are set before the insert, so the new book is not updated again on commit
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        book.setAddedOn(now);
+        book.setUpdatedOn(now);
+        return bookRepository.save(book);
+    }
+
+    @Override
+    @Transactional
+    public Book updateBook(int id, Book updatedBook) {
+        return updateBook(id, updatedBook, null);
     }
 
     /**
-     * Updates a book.
+     * Updates a book with one UPDATE statement and reads the new row.
      * @param id Entity of the Book object from which a book can be searched for.
      * @param updatedBook updatedBook
+     * @param version expected version, any version if null
      * @return Book
      */
     @Override
     @Transactional
-    public Book updateBook(int id, Book updatedBook) {
-        // Implementation
-        Book book = bookRepository.findById(id).orElseThrow(
-                () -> new EntityNotFoundException("Error: Book with id " + id + " not found"));
-
-        book.setName(book.getName());
-        book.setAuthor(book.getAuthor());
-        book.setPublishedYear(book.getPublishedYear());
-        book.setIsbn(book.getIsbn());
-        book.setGenre(book.getGenre());
-        book.setDescription(book.getDescription());
-
-        return bookRepository.save(book);
+    public Book updateBook(int id, Book updatedBook, Long version) {
+        int updated;
+        try {
+            updated = bookRepository.updateById(id, updatedBook, version, new Timestamp(System.currentTimeMillis()));
+        } catch (DataIntegrityViolationException e) {
+            throw isbnTaken(updatedBook.getIsbn(), e);
+        }
+        if (updated == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new EntityNotFoundException("Error: Book with id " + id + " not found");
+            }
+            throw new OptimisticLockException("Error: Book with id " + id + " was modified, version " + version + " is outdated");
+        }
+        Book book = bookRepository.findById(id).orElseThrow();
+        evict(book);
+        return book;
     }
 
     @Override
     @Transactional
     public Book updateBook(String isbn, Book updatedBook) {
-        // Implementation
-        Book book = bookRepository.findByIsbn(isbn).orElseThrow(
-                () -> new EntityNotFoundException("Error: Book with isbn " + isbn + " not found"));
+        return updateBook(isbn, updatedBook, null);
+    }
 
-        book.setName(book.getName());
-        book.setAuthor(book.getAuthor());
-        book.setPublishedYear(book.getPublishedYear());
-        book.setIsbn(book.getIsbn());
-        book.setGenre(book.getGenre());
-        book.setDescription(book.getDescription());
+    @Override
+    @Transactional
+    public Book updateBook(String isbn, Book updatedBook, Long version) {
+        // The book is read back by its new isbn, which must not belong to another book
+        if (!updatedBook.getIsbn().equals(isbn) && bookRepository.existsByIsbn(updatedBook.getIsbn())) {
+            throw isbnTaken(updatedBook.getIsbn(), null);
+        }
+        int updated;
+        try {
+            updated = bookRepository.updateByIsbn(isbn, updatedBook, version, new Timestamp(System.currentTimeMillis()));
+        } catch (DataIntegrityViolationException e) {
+            throw isbnTaken(updatedBook.getIsbn(), e);
+        }
+        if (updated == 0) {
+            if (!bookRepository.existsByIsbn(isbn)) {
+                throw new EntityNotFoundException("Error: Book with isbn " + isbn + " not found");
+            }
+            throw new OptimisticLockException("Error: Book with isbn " + isbn + " was modified, version " + version + " is outdated");
+        }
+        Book book = bookRepository.findByIsbn(updatedBook.getIsbn()).orElseThrow();
+        evict(book);
+        // The isbn may have changed
+        cacheManager.getCache(CacheConfig.BOOK_ISBNS).evict(isbn);
+        return book;
+    }
 
-        return bookRepository.save(book);
+    private static ResponseStatusException isbnTaken(String isbn, Throwable cause) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, "Error: A book with isbn " + isbn + " already exists", cause);
     }
 
+    /**
+     * Finds a book by id, reading through the book cache.
+     *
+     * @param id Entity of the Book object from which a book can be searched for.
+     * @return Book
+     */
     @Override
     public Book getBookById(Integer id) {
-        // Implementation
-        return bookRepository.findById(id).orElseThrow(
-                () -> new EntityNotFoundException("Error: Book with id " + id + " not found"));
+        Cache cache = cacheManager.getCache(CacheConfig.BOOKS);
+        Book book = cache.get(id, Book.class);
+        if (book == null) {
+            book = bookRepository.findById(id).orElseThrow(
+                    () -> new EntityNotFoundException("Error: Book with id " + id + " not found"));
+            cache.put(id, book);
+        }
+        return book;
     }
 
+    /**
+     * Finds a book by isbn. The isbn is mapped to the id of the book through a secondary cache,
+     * the book itself is read through the book cache.
+     *
+     * @param isbn Entity of the Book object from which a book can be searched for.
+     * @return Book
+     */
     @Override
     public Book getBookByIsbn(String isbn) {
-        // Implementation
-        return bookRepository.findByIsbn(isbn).orElseThrow(
+        Cache isbnCache = cacheManager.getCache(CacheConfig.BOOK_ISBNS);
+        Integer id = isbnCache.get(isbn, Integer.class);
+        if (id != null) {
+            Book book = cacheManager.getCache(CacheConfig.BOOKS).get(id, Book.class);
+            if (book != null && isbn.equals(book.getIsbn())) {
+                return book;
+            }
+        }
+        Book book = bookRepository.findByIsbn(isbn).orElseThrow(
                 () -> new EntityNotFoundException("Error: Book with isbn " + isbn + " not found"));
+        isbnCache.put(isbn, book.getId());
+        cacheManager.getCache(CacheConfig.BOOKS).put(book.getId(), book);
+        return book;
     }
 
     @Override
@@ -120,28 +216,66 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
-    public List<Book> getAllBooks(Integer limit) {
-        // Retrieve all books
-        List<Book> books = StreamSupport.stream(bookRepository.findAll().spliterator(), false).collect(Collectors.toList());
-
-        // Apply limit if it's specified and greater than 0
-        if (limit != null && limit > 0) {
-            books = books.stream().limit(limit).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public CursorPage<BookView> getBooks(BookFilter filter, boolean withReviews, String cursor, int limit) {
+        CursorPage<BookSummary> page = Keyset.page(entityManager, Book.class, BookSummary.class, filter.toSpecification(), cursor, limit,
+                book -> Keyset.cursorOf(book.addedOn(), book.id()));
+        if (!withReviews) {
+            return page.map(book -> new BookView(book, null));
         }
-
-        return books;
+        Map<Integer, List<ReviewSummary>> reviews = reviewService.getMediaReviewSummaries(ReviewType.BOOK,
+                page.items().stream().map(BookSummary::id).toList());
+        return page.map(book -> new BookView(book, reviews.getOrDefault(book.id(), List.of())));
     }
 
     @Override
     public Book getRandomBook() {
-        // Implementation
-        return null;
+        return getRandomBooks(null, 1).stream().findFirst().orElseThrow(
+                () -> new EntityNotFoundException("Error: No books found"));
+    }
+
+    /**
+     * Samples random books. A random id between the lowest and highest id is probed with a primary key lookup;
+     * after a few misses (gaps left by deleted books, or books of another genre) the next existing id is taken instead.
+     * Every sample costs a constant number of index lookups, independent of the size of the catalog.
+     * The fallback favours the books after a gap: each is taken for every id in the gap before it.
+     *
+     * @param genre genre of the books, null for any genre.
+     * @param count number of books to return.
+     * @return a list of at most count distinct books.
+     */
+    @Override
+    public List<Book> getRandomBooks(String genre, int count) {
+        BookIdRange range = genre == null ? bookRepository.findIdRange() : bookRepository.findIdRangeByGenre(genre);
+        if (range.isEmpty()) {
+            return List.of();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<Integer, Book> books = new LinkedHashMap<>();
+        int attempts = count * RANDOM_ATTEMPTS_PER_BOOK;
+        for (int attempt = 0; attempt < attempts && books.size() < count; attempt++) {
+            int id = random.nextInt(range.min(), range.max() + 1);
+            Optional<Book> book = bookRepository.findById(id)
+                    .filter(found -> genre == null || genre.equals(found.getGenre()));
+            if (book.isEmpty() && attempt % RANDOM_ATTEMPTS_PER_BOOK == RANDOM_ATTEMPTS_PER_BOOK - 1) {
+                // Too many gaps, take the next existing book instead
+                book = genre == null
+                        ? bookRepository.findFirstByIdGreaterThanEqualOrderByIdAsc(id)
+                        : bookRepository.findFirstByGenreAndIdGreaterThanEqualOrderByIdAsc(genre, id);
+            }
+            book.ifPresent(found -> books.putIfAbsent(found.getId(), found));
+        }
+        return new ArrayList<>(books.values());
     }
 
     @Override
     @Transactional
     public void deleteBook(int id) {
         // Implementation
+        bookRepository.findById(id).ifPresent(book -> {
+            evict(book);
+            reviewService.deleteMediaReviews(ReviewType.BOOK, book.getId());
+        });
         bookRepository.deleteById(id);
     }
 
@@ -149,6 +283,10 @@ public class BookServiceImpl implements BookService {
     @Transactional
     public void deleteBook(String isbn) {
         // Implementation
+        bookRepository.findByIsbn(isbn).ifPresent(book -> {
+            evict(book);
+            reviewService.deleteMediaReviews(ReviewType.BOOK, book.getId());
+        });
         bookRepository.deleteBookByIsbn(isbn);
     }
 
@@ -156,46 +294,143 @@ public class BookServiceImpl implements BookService {
      * Imports books from a JSON file.
      *
      * @param filePath The file path to the JSON file.
+     * @return The number of imported books.
      * @throws IOException If there is an error processing the file.
      */
     @Override
-    @Transactional
-    public void importBooksJson(String filePath) throws IOException {
-        Resource resource = resourceLoader.getResource(filePath);
-        List<Book> books = objectMapper.readValue(resource.getInputStream(), new TypeReference<>() {
-        });
+    public long importBooksJson(String filePath) throws IOException {
+        return importBooksJson(filePath, importChunkSize, ImportProgress.NONE);
+    }
 
-        bookRepository.saveAll(books);
+    @Override
+    public long importBooksJson(String filePath, int chunkSize) throws IOException {
+        return importBooksJson(filePath, chunkSize, ImportProgress.NONE);
+    }
+
+    /**
+     * Imports books from a JSON array or an NDJSON file.
+     * The file is read token by token, so only one chunk of books is kept in memory.
+     *
+     * @param filePath  The file path to the JSON file.
+     * @param chunkSize The number of books committed per transaction.
+     * @param progress  Receives the progress of the import.
+     * @return The number of imported books.
+     * @throws IOException If there is an error processing the file.
+     */
+    @Override
+    public long importBooksJson(String filePath, int chunkSize, ImportProgress progress) throws IOException {
+        Timer.Sample sample = bookTransferMetrics.start();
+        ChunkedImport chunks = new ChunkedImport(bookImportWriter, chunkSize, progress);
+        Resource resource = resourceLoader.getResource(filePath);
+        ObjectReader bookReader = objectMapper.readerFor(Book.class);
+        String format = "json";
+        boolean success = false;
+        try (JsonParser parser = objectMapper.getFactory().createParser(resource.getInputStream())) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            } else {
+                format = "ndjson";
+            }
+            // Either the elements of the array or a sequence of root level objects (NDJSON)
+            while (token == JsonToken.START_OBJECT) {
+                chunks.add(bookReader.readValue(parser));
+                token = parser.nextToken();
+            }
+            if (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                throw new JsonParseException(parser, "Expected a book object but found " + token);
+            }
+            long imported = chunks.finish();
+            success = true;
+            return imported;
+        } finally {
+            bookTransferMetrics.imported(sample, format, false, success);
+        }
     }
 
     /**
      * Imports books from a CSV file.
+     * The file is streamed and written in chunks of the configured size, see {@link BookImportWriter}.
      *
      * @param filePath The file path to the CSV file.
+     * @return The number of imported books.
      * @throws IOException            If there is an error processing the file.
      * @throws CsvValidationException If there is an error with the CSV format.
      */
     @Override
-    @Transactional
-    public void importBooksCsv(String filePath) throws IOException, CsvValidationException {
+    public long importBooksCsv(String filePath) throws IOException, CsvValidationException {
+        return importBooksCsv(filePath, importChunkSize, ImportProgress.NONE);
+    }
 
+    @Override
+    public long importBooksCsv(String filePath, int chunkSize) throws IOException, CsvValidationException {
+        return importBooksCsv(filePath, chunkSize, ImportProgress.NONE);
+    }
+
+    /**
+     * Imports books from a CSV file, reporting rows that can not be converted to the progress listener.
+     *
+     * @param filePath  The file path to the CSV file.
+     * @param chunkSize The number of books committed per transaction.
+     * @param progress  Receives the progress of the import.
+     * @return The number of imported books.
+     * @throws IOException            If there is an error processing the file.
+     * @throws CsvValidationException If there is an error with the CSV format.
+     */
+    @Override
+    public long importBooksCsv(String filePath, int chunkSize, ImportProgress progress) throws IOException, CsvValidationException {
+        Timer.Sample sample = bookTransferMetrics.start();
+        ChunkedImport chunks = new ChunkedImport(bookImportWriter, chunkSize, progress);
         Resource resource = resourceLoader.getResource(filePath);
-        List<Book> books = new ArrayList<>();
-        try (CSVReader csVreader = new CSVReader(new InputStreamReader(resource.getInputStream()))) {
+        boolean success = false;
+        try (CSVReader csvReader = BookCsvFormat.reader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            BookCsvFormat format = BookCsvFormat.fromHeader(csvReader.readNext());
             String[] line;
-            csVreader.readNext();
-            while ((line = csVreader.readNext()) != null) {
-                Book book = new Book();
-                book.setName(line[0]);
-                book.setAuthor(line[1]);
-                book.setPublishedYear(Integer.parseInt(line[2]));
-                book.setIsbn(line[3]);
-                book.setGenre(line[4]);
-                book.setDescription(line[5]);
-                books.add(book);
+            while ((line = csvReader.readNext()) != null) {
+                Book book;
+                try {
+                    book = format.toBook(line);
+                } catch (RuntimeException e) {
+                    chunks.failed(e);
+                    continue;
+                }
+                chunks.add(book);
             }
+            long imported = chunks.finish();
+            success = true;
+            return imported;
+        } finally {
+            bookTransferMetrics.imported(sample, "csv", false, success);
+        }
+    }
+
+    /**
+     * Imports books from a CSV file on the local file system, parsing it on all cores (see {@link ParallelCsvImporter}).
+     *
+     * @param filePath  The file path to the CSV file.
+     * @param chunkSize The number of books committed per transaction.
+     * @param ordered   Whether the books are written in the order of the file.
+     * @param progress  Receives the progress of the import.
+     * @return The number of imported books.
+     * @throws IOException            If there is an error processing the file or it is not a local file.
+     * @throws CsvValidationException If there is an error with the CSV format.
+     */
+    @Override
+    public long importBooksCsvParallel(String filePath, int chunkSize, boolean ordered, ImportProgress progress) throws IOException, CsvValidationException {
+        Resource resource = resourceLoader.getResource(filePath);
+        if (!resource.isFile()) {
+            throw new IOException("Parallel imports need a file on the local file system: " + filePath);
+        }
+        Timer.Sample sample = bookTransferMetrics.start();
+        boolean success = false;
+        try {
+            long imported = parallelCsvImporter.importCsv(resource.getFile().toPath(), chunkSize, ordered, progress);
+            success = true;
+            return imported;
+        } finally {
+            bookTransferMetrics.imported(sample, "csv", true, success);
         }
-        bookRepository.saveAll(books);
     }
 
     /**
@@ -225,20 +460,115 @@ public class BookServiceImpl implements BookService {
     public String exportBooksCsv(List<Book> books) throws IOException {
         StringWriter writer = new StringWriter();
         try (CSVWriter csvWriter = new CSVWriter(writer)) {
-            String[] head = {"id", "name", "author", "publishedYear", "isbn", "genre", "description", "addedOn", "updatedOn"};
-            csvWriter.writeNext(head);
+            csvWriter.writeNext(BookCsvFormat.HEADER);
             for (Book book : books) {
-                String[] input = {String.valueOf(book.getId()), book.getName(), book.getAuthor(), String.valueOf(book.getPublishedYear()), book.getIsbn(), book.getGenre(), book.getDescription(), String.valueOf(book.getAddedOn()), String.valueOf(book.getUpdatedOn())};
-                csvWriter.writeNext(input);
+                csvWriter.writeNext(BookCsvFormat.toLine(book));
             }
         }
         return writer.toString();
     }
 
+    /**
+     * Streams all books as CSV to the given output stream.
+     * Rows are read through a database cursor and detached once written, so memory use is constant.
+     *
+     * @param out The stream the CSV is written to.
+     * @return The number of exported books.
+     * @throws IOException If an error occurs during writing to the CSV.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooksCsv(OutputStream out) throws IOException {
+        Timer.Sample sample = bookTransferMetrics.start();
+        CSVWriter csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        long exported = 0;
+        boolean success = false;
+        csvWriter.writeNext(BookCsvFormat.HEADER);
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            for (Book book : (Iterable<Book>) books::iterator) {
+                csvWriter.writeNext(BookCsvFormat.toLine(book));
+                entityManager.detach(book);
+                exported++;
+            }
+            csvWriter.flush();
+            success = true;
+        } finally {
+            bookTransferMetrics.exported(sample, "csv", exported, success);
+        }
+        return exported;
+    }
+
+    /**
+     * Streams all books as a JSON array to the given output stream.
+     * Rows are read through a database cursor and detached once written, so memory use is constant.
+     *
+     * @param out The stream the JSON is written to.
+     * @return The number of exported books.
+     * @throws IOException If an error occurs during writing the JSON.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooksJson(OutputStream out) throws IOException {
+        Timer.Sample sample = bookTransferMetrics.start();
+        long exported = 0;
+        boolean success = false;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<Book> books = bookRepository.streamAll()) {
+            generator.writeStartArray();
+            for (Book book : (Iterable<Book>) books::iterator) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", book.getId());
+                generator.writeStringField("name", book.getName());
+                generator.writeStringField("author", book.getAuthor());
+                generator.writeNumberField("publishedYear", book.getPublishedYear());
+                generator.writeStringField("isbn", book.getIsbn());
+                generator.writeStringField("genre", book.getGenre());
+                generator.writeStringField("description", book.getDescription());
+                generator.writeObjectField("addedOn", book.getAddedOn());
+                generator.writeObjectField("updatedOn", book.getUpdatedOn());
+                generator.writeEndObject();
+                entityManager.detach(book);
+                exported++;
+            }
+            generator.writeEndArray();
+            generator.flush();
+            success = true;
+        } finally {
+            bookTransferMetrics.exported(sample, "json", exported, success);
+        }
+        return exported;
+    }
+
+    @Override
+    public boolean hasBooks() {
+        return bookRepository.findFirstByOrderByIdAsc().isPresent();
+    }
+
     @Override
     public double getBookRating(int id) {
-        Book book = bookRepository.findById(id).orElseThrow(() -> new EntityNotFoundException("Error: Song with id " + id + " not found"));
+        if (!bookRepository.existsById(id)) {
+            throw new EntityNotFoundException("Error: Book with id " + id + " not found");
+        }
+
+        return ratingAggregateService.getAverageRating(ReviewType.BOOK, id);
+    }
+
+    @Override
+    public CursorPage<ReviewSummary> getBookReviews(int id, ReviewSort sort, String cursor, int limit) {
+        if (!bookRepository.existsById(id)) {
+            throw new EntityNotFoundException("Error: Book with id " + id + " not found");
+        }
+        return reviewService.getMediaReviews(ReviewType.BOOK, id, sort, cursor, limit);
+    }
 
-        return book.getReviews().stream().mapToInt(Review::getReviewRating).average().orElse(0.0);
+    /**
+     * Removes a book from the book cache and its isbn from the secondary key cache.
+     *
+     * @param book the changed or deleted book
+     */
+    private void evict(Book book) {
+        cacheManager.getCache(CacheConfig.BOOKS).evict(book.getId());
+        cacheManager.getCache(CacheConfig.BOOK_ISBNS).evict(book.getIsbn());
     }
 }
@@ -0,0 +1,28 @@
+package nl.rug.API.bookmanagement;
+
+import java.sql.Timestamp;
+
+/**
+ * Book as returned by the list endpoints: everything except the description,
+ * which is only loaded by GET /books/{id}.
+ *
+ * @param id            id of the book
+ * @param name          name and or title of the book
+ * @param author        author of the book
+ * @param publishedYear year of publishing
+ * @param isbn          unique id of the book
+ * @param genre         genre of the book
+ * @param addedOn       timestamp of the addition to the database
+ * @param updatedOn     timestamp of the last update
+ * @param version       version of the book, for If-Match
+ */
+public record BookSummary(Integer id,
+                          String name,
+                          String author,
+                          int publishedYear,
+                          String isbn,
+                          String genre,
+                          Timestamp addedOn,
+                          Timestamp updatedOn,
+                          long version) {
+}
@@ -0,0 +1,86 @@
+package nl.rug.API.bookmanagement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Metrics of the book imports and exports, published on /actuator/prometheus:
+ * the timers books.import (tags format, parallel and outcome) and books.export (tags format and outcome),
+ * the counter books.imported of the rows committed by all imports (counted per chunk, without tags)
+ * and the counter books.exported (tag format) of the rows written by exports.
+ * The outcome is success or error, so failed transfers do not show up in the latencies of successful ones.
+ * Percentile histograms of the timers are enabled in application.properties.
+ */
+@Component
+@RequiredArgsConstructor
+class BookTransferMetrics {
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Starts timing an import or export.
+     *
+     * @return the sample to pass to {@link #imported} or {@link #exported}
+     */
+    Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * Records the duration of a finished (or failed) import.
+     *
+     * @param sample   the sample started before the import
+     * @param format   "csv", "json" or "ndjson"
+     * @param parallel whether the file was parsed in parallel
+     * @param success  whether the import completed
+     */
+    void imported(Timer.Sample sample, String format, boolean parallel, boolean success) {
+        sample.stop(Timer.builder("books.import")
+                .description("Duration of book imports")
+                .tag("format", format)
+                .tag("parallel", String.valueOf(parallel))
+                .tag("outcome", outcome(success))
+                .register(meterRegistry));
+    }
+
+    /**
+     * Counts books committed by an import, called for every chunk so the counter follows long imports.
+     *
+     * @param rows the number of books
+     */
+    void rowsImported(int rows) {
+        Counter.builder("books.imported")
+                .description("Books written by imports")
+                .baseUnit("rows")
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    /**
+     * Records the duration and the number of rows of a finished (or failed) export.
+     *
+     * @param sample  the sample started before the export
+     * @param format  "csv" or "json"
+     * @param rows    the number of books written
+     * @param success whether the export completed
+     */
+    void exported(Timer.Sample sample, String format, long rows, boolean success) {
+        sample.stop(Timer.builder("books.export")
+                .description("Duration of book exports")
+                .tag("format", format)
+                .tag("outcome", outcome(success))
+                .register(meterRegistry));
+        Counter.builder("books.exported")
+                .description("Books written by exports")
+                .baseUnit("rows")
+                .tag("format", format)
+                .register(meterRegistry)
+                .increment(rows);
+    }
+
+    private static String outcome(boolean success) {
+        return success ? "success" : "error";
+    }
+}
@@ -0,0 +1,17 @@
+package nl.rug.API.bookmanagement;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import nl.rug.API.reviewmanagement.ReviewSummary;
+
+import java.util.List;
+
+/**
+ * Listed book: the summary of the book and, with expand=reviews, the summaries of its reviews.
+ *
+ * @param book    the book
+ * @param reviews the reviews of the book (newest first), null (left out) if they were not expanded
+ */
+public record BookView(@JsonUnwrapped BookSummary book,
+                       @JsonInclude(JsonInclude.Include.NON_NULL) List<ReviewSummary> reviews) {
+}
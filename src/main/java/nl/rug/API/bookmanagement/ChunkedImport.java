@@ -0,0 +1,72 @@
+package nl.rug.API.bookmanagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Collects the books read by an import and hands them to the {@link BookImportWriter} in chunks,
+ * reporting to the {@link ImportProgress} of the import.
+ */
+final class ChunkedImport {
+    private final BookImportWriter writer;
+    private final int chunkSize;
+    private final ImportProgress progress;
+    private final List<Book> chunk;
+    private long rows;
+    private long written;
+
+    ChunkedImport(BookImportWriter writer, int chunkSize, ImportProgress progress) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.writer = writer;
+        this.chunkSize = chunkSize;
+        this.progress = progress;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * Adds a parsed book, writing the chunk once it is full.
+     *
+     * @param book the parsed book
+     */
+    void add(Book book) {
+        rows++;
+        progress.rowParsed();
+        chunk.add(book);
+        if (chunk.size() == chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Reports a row that could not be parsed.
+     *
+     * @param cause the reason
+     */
+    void failed(Exception cause) {
+        rows++;
+        progress.rowFailed(rows, cause);
+    }
+
+    /**
+     * Writes the remaining books.
+     *
+     * @return the total number of books written
+     */
+    long finish() {
+        flush();
+        return written;
+    }
+
+    private void flush() {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Import cancelled after " + written + " books");
+        }
+        int count = writer.writeChunk(chunk);
+        chunk.clear();
+        written += count;
+        progress.rowsWritten(count);
+    }
+}
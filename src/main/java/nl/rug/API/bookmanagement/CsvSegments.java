@@ -0,0 +1,97 @@
+package nl.rug.API.bookmanagement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a CSV file into segments that start and end on record boundaries, so the segments can be parsed
+ * independently. The file is scanned once: a newline only ends a record when it is not inside a quoted
+ * value. Quotes are escaped by doubling them, as written by the export, and a backslash does not escape
+ * anything: the same RFC 4180 rules the segments are parsed with (see {@link BookCsvFormat#reader}).
+ * The first segment always contains only the header line.
+ */
+final class CsvSegments {
+    private static final long SCAN_WINDOW = 1L << 28;
+
+    /**
+     * A byte range of the file, {@code end} is exclusive.
+     */
+    record Segment(int index, long start, long end) {
+        long length() {
+            return end - start;
+        }
+    }
+
+    private final long segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    private boolean inQuotes;
+    private long start;
+
+    private CsvSegments(long segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Splits a file, the file is memory mapped in windows while it is scanned.
+     *
+     * @param channel     the file
+     * @param segmentSize the minimum number of bytes of a segment, the last segment may be smaller
+     * @return the header segment followed by the record segments
+     */
+    static List<Segment> split(FileChannel channel, long segmentSize) throws IOException {
+        CsvSegments splitter = new CsvSegments(segmentSize);
+        long size = channel.size();
+        for (long offset = 0; offset < size; offset += SCAN_WINDOW) {
+            splitter.scan(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SCAN_WINDOW, size - offset)), offset);
+        }
+        return splitter.finish(size);
+    }
+
+    /**
+     * Splits data that is already in memory.
+     *
+     * @param data        the content of the file, from its position to its limit
+     * @param segmentSize the minimum number of bytes of a segment
+     * @return the header segment followed by the record segments
+     */
+    static List<Segment> split(ByteBuffer data, long segmentSize) {
+        CsvSegments splitter = new CsvSegments(segmentSize);
+        int size = data.remaining();
+        splitter.scan(data.slice(), 0);
+        return splitter.finish(size);
+    }
+
+    private void scan(ByteBuffer window, long offset) {
+        int limit = window.limit();
+        for (int i = 0; i < limit; i++) {
+            byte b = window.get(i);
+            if (b == '"') {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes) {
+                long end = offset + i + 1;
+                // The header is a segment of its own, the other segments are at least segmentSize bytes
+                if (segments.isEmpty() || end - start >= segmentSize) {
+                    add(end);
+                }
+            }
+        }
+    }
+
+    private List<Segment> finish(long size) {
+        if (start < size) {
+            add(size);
+        }
+        return segments;
+    }
+
+    private void add(long end) {
+        segments.add(new Segment(segments.size(), start, end));
+        start = end;
+    }
+}
@@ -0,0 +1,152 @@
+package nl.rug.API.bookmanagement;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An import of a book file that runs in the background, see {@link BookImportJobService}.
+ * The counters are updated by the import thread and read by the status endpoint.
+ */
+@Getter
+public class ImportJob implements ImportProgress {
+    /**
+     * Maximum number of row errors kept per job, later errors are only counted.
+     */
+    static final int MAX_ERRORS = 100;
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String file;
+    private final String format;
+    private final int chunkSize;
+    private final boolean parallel;
+    private final boolean ordered;
+    private final Instant submittedAt = Instant.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String failure;
+
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicLong rowsParsed = new AtomicLong();
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicLong rowsWritten = new AtomicLong();
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicLong rowsFailed = new AtomicLong();
+    @Getter(lombok.AccessLevel.NONE)
+    private final List<String> errors = new ArrayList<>();
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    @JsonIgnore
+    private volatile Future<?> future;
+
+    ImportJob(String file, String format, int chunkSize, boolean parallel, boolean ordered) {
+        this.file = file;
+        this.format = format;
+        this.chunkSize = chunkSize;
+        this.parallel = parallel;
+        this.ordered = ordered;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.get();
+    }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    /**
+     * @return the number of books written per second since the job started
+     */
+    public double getThroughput() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return rowsWritten.get() * 1000.0 / millis;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    @Override
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    @Override
+    public void rowsWritten(long rows) {
+        rowsWritten.addAndGet(rows);
+    }
+
+    /**
+     * Invalid rows are skipped and recorded instead of aborting the import.
+     */
+    @Override
+    public void rowFailed(long row, Exception cause) {
+        if (rowsFailed.incrementAndGet() <= MAX_ERRORS) {
+            synchronized (errors) {
+                errors.add("Row " + row + ": " + cause.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void finished(Status status, String failure) {
+        this.failure = failure;
+        this.finishedAt = Instant.now();
+        this.status = status;
+    }
+
+    /**
+     * Requests the cancellation of the job. A queued job is cancelled right away,
+     * a running job stops before writing its next chunk (committed chunks are kept).
+     */
+    void cancel() {
+        cancelled.set(true);
+        Future<?> pending = future;
+        if (status == Status.QUEUED && pending != null && pending.cancel(false)) {
+            finished(Status.CANCELLED, null);
+        }
+    }
+}
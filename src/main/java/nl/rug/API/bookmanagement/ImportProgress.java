@@ -0,0 +1,47 @@
+package nl.rug.API.bookmanagement;
+
+/**
+ * Receives the progress of a book import and decides whether the import should continue.
+ * The default methods ignore the progress and fail the import on the first invalid row.
+ */
+public interface ImportProgress {
+    /**
+     * Progress listener of imports that are not tracked.
+     */
+    ImportProgress NONE = new ImportProgress() {
+    };
+
+    /**
+     * Called for every book that was read from the file.
+     */
+    default void rowParsed() {
+    }
+
+    /**
+     * Called after a chunk of books was committed.
+     *
+     * @param rows the number of books in the chunk
+     */
+    default void rowsWritten(long rows) {
+    }
+
+    /**
+     * Called when a row of the file can not be converted to a book.
+     *
+     * @param row   the number of the row (1 is the first row after the header)
+     * @param cause the reason
+     * @throws IllegalArgumentException to abort the import
+     */
+    default void rowFailed(long row, Exception cause) {
+        throw new IllegalArgumentException("Invalid book at row " + row + ": " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Checked before every chunk is written.
+     *
+     * @return true if the import should stop
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
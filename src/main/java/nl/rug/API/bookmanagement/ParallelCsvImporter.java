@@ -0,0 +1,181 @@
+package nl.rug.API.bookmanagement;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Imports a CSV file by parsing it on all cores.
+ * The file is memory mapped and split into record aligned segments (see {@link CsvSegments}), the segments
+ * are parsed on the parse pool and the parsed books are written in chunks by the calling thread.
+ * Only a bounded number of parsed segments is kept in memory.
+ * In ordered mode the books are written in the order of the file, otherwise in the order the segments are
+ * parsed (row numbers of errors then follow that order as well).
+ */
+@Component
+public class ParallelCsvImporter {
+    private final BookImportWriter bookImportWriter;
+    private final ForkJoinPool parsePool;
+    private final long segmentSize;
+
+    public ParallelCsvImporter(BookImportWriter bookImportWriter,
+                               @Qualifier(BookImportConfig.PARSE_POOL) ForkJoinPool parsePool,
+                               @Value("${books.import.parallel.segment-size:8388608}") long segmentSize) {
+        this.bookImportWriter = bookImportWriter;
+        this.parsePool = parsePool;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * A line of a segment, either the parsed book or the reason it could not be parsed.
+     */
+    private record Row(Book book, RuntimeException error) {
+    }
+
+    /**
+     * Imports a CSV file from the local file system.
+     *
+     * @param file      the file
+     * @param chunkSize the number of books committed per transaction
+     * @param ordered   whether the books are written in the order of the file
+     * @param progress  receives the progress of the import
+     * @return the number of imported books
+     */
+    public long importCsv(Path file, int chunkSize, boolean ordered, ImportProgress progress) throws IOException, CsvValidationException {
+        ChunkedImport chunks = new ChunkedImport(bookImportWriter, chunkSize, progress);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<CsvSegments.Segment> segments = CsvSegments.split(channel, segmentSize);
+            if (segments.isEmpty()) {
+                return 0;
+            }
+            BookCsvFormat format;
+            try (CSVReader header = reader(channel, segments.get(0))) {
+                format = BookCsvFormat.fromHeader(header.readNext());
+            }
+            List<CsvSegments.Segment> records = segments.subList(1, segments.size());
+            int maxInFlight = parsePool.getParallelism() * 2;
+            if (ordered) {
+                writeOrdered(channel, format, records, maxInFlight, chunks);
+            } else {
+                writeUnordered(channel, format, records, maxInFlight, chunks);
+            }
+        }
+        return chunks.finish();
+    }
+
+    private void writeOrdered(FileChannel channel, BookCsvFormat format, List<CsvSegments.Segment> segments,
+                              int maxInFlight, ChunkedImport chunks) throws IOException, CsvValidationException {
+        Deque<Future<List<Row>>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < segments.size() || !inFlight.isEmpty()) {
+                while (next < segments.size() && inFlight.size() < maxInFlight) {
+                    CsvSegments.Segment segment = segments.get(next++);
+                    inFlight.add(parsePool.submit(() -> parse(channel, format, segment)));
+                }
+                write(await(inFlight.poll()), chunks);
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private void writeUnordered(FileChannel channel, BookCsvFormat format, List<CsvSegments.Segment> segments,
+                                int maxInFlight, ChunkedImport chunks) throws IOException, CsvValidationException {
+        CompletionService<List<Row>> completion = new ExecutorCompletionService<>(parsePool);
+        List<Future<List<Row>>> submitted = new ArrayList<>();
+        int next = 0;
+        int inFlight = 0;
+        try {
+            while (next < segments.size() || inFlight > 0) {
+                while (next < segments.size() && inFlight < maxInFlight) {
+                    CsvSegments.Segment segment = segments.get(next++);
+                    submitted.add(completion.submit(() -> parse(channel, format, segment)));
+                    inFlight++;
+                }
+                Future<List<Row>> done;
+                try {
+                    done = completion.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Import interrupted", e);
+                }
+                inFlight--;
+                write(await(done), chunks);
+            }
+        } finally {
+            submitted.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static void write(List<Row> rows, ChunkedImport chunks) {
+        for (Row row : rows) {
+            if (row.error() == null) {
+                chunks.add(row.book());
+            } else {
+                chunks.failed(row.error());
+            }
+        }
+    }
+
+    private static List<Row> parse(FileChannel channel, BookCsvFormat format, CsvSegments.Segment segment) throws IOException, CsvValidationException {
+        List<Row> rows = new ArrayList<>();
+        try (CSVReader csvReader = reader(channel, segment)) {
+            String[] line;
+            while ((line = csvReader.readNext()) != null) {
+                try {
+                    rows.add(new Row(format.toBook(line), null));
+                } catch (RuntimeException e) {
+                    rows.add(new Row(null, e));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static CSVReader reader(FileChannel channel, CsvSegments.Segment segment) throws IOException {
+        // Segments start after a newline, so they never split a UTF-8 sequence
+        CharBuffer chars = StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, segment.start(), segment.length()));
+        return BookCsvFormat.reader(new CharArrayReader(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining()));
+    }
+
+    private static <T> T await(Future<T> future) throws IOException, CsvValidationException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof CsvValidationException csv) {
+                throw csv;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
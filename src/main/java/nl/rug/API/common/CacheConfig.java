@@ -0,0 +1,54 @@
+package nl.rug.API.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the in-process caches.
+ * The caches are size bounded Caffeine caches with a time to live, configured with spring.cache.caffeine.spec.
+ * Cache writes and evictions are transaction aware: inside a transaction they are applied after the commit,
+ * so an eviction is not undone by a reader that loads the old row while the change is still uncommitted.
+ * This does not prevent every stale entry: a reader that loaded the old row before the commit can still put it
+ * after the eviction. Such an entry stays until the next change of the row or until the time to live expires.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    /**
+     * Cache of the average album ratings, see AlbumService.
+     */
+    public static final String ALBUM_RATINGS = "albumRatings";
+
+    /**
+     * Cache of books by id, see BookServiceImpl.
+     */
+    public static final String BOOKS = "books";
+
+    /**
+     * Secondary key of the book cache: isbn to book id.
+     */
+    public static final String BOOK_ISBNS = "bookIsbns";
+
+    /**
+     * Cache of songs by id, see SongService.
+     */
+    public static final String SONGS = "songs";
+
+    /**
+     * Cache of albums (including their songs) by id, see AlbumService.
+     */
+    public static final String ALBUMS = "albums";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(ALBUM_RATINGS, BOOKS, BOOK_ISBNS, SONGS, ALBUMS);
+        cacheManager.setCacheSpecification(spec);
+        cacheManager.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
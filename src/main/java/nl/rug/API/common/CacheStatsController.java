@@ -0,0 +1,56 @@
+package nl.rug.API.common;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exposes the statistics of the in-process caches, used to size them.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/cache")
+public class CacheStatsController {
+    private final CacheManager cacheManager;
+
+    /**
+     * Statistics of one cache.
+     *
+     * @param size      the estimated number of entries
+     * @param hits      the number of lookups that found an entry
+     * @param misses    the number of lookups that did not find an entry
+     * @param hitRate   the ratio of hits to lookups
+     * @param evictions the number of entries removed because of the size bound or the time to live
+     */
+    public record Stats(long size, long hits, long misses, double hitRate, long evictions) {
+    }
+
+    /**
+     * Retrieves the statistics of all caches.
+     *
+     * @return the statistics by cache name
+     */
+    @GetMapping("/stats")
+    @ResponseStatus(HttpStatus.OK)
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+                CacheStats cacheStats = caffeine.stats();
+                stats.put(name, new Stats(caffeine.estimatedSize(), cacheStats.hitCount(), cacheStats.missCount(),
+                        cacheStats.hitRate(), cacheStats.evictionCount()));
+            }
+        }
+        return stats;
+    }
+}
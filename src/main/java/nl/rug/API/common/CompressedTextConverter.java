@@ -0,0 +1,109 @@
+package nl.rug.API.common;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores long texts (descriptions and review texts) deflated in a binary column.
+ * The first byte tells how the rest is stored: short texts are kept as plain UTF-8 because
+ * deflating them does not save space. Used by JPA and by the JDBC batch writers.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+    /**
+     * Texts shorter than this (in UTF-8 bytes) are stored as they are.
+     */
+    static final int MIN_COMPRESSED_LENGTH = 128;
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        return compress(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        return decompress(stored);
+    }
+
+    /**
+     * Converts a text to the stored form.
+     *
+     * @param text the text, may be null
+     * @return the flag byte followed by the plain or deflated UTF-8 bytes, null if the text is null
+     */
+    public static byte[] compress(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_COMPRESSED_LENGTH) {
+            Deflater deflater = new Deflater();
+            try {
+                deflater.setInput(utf8);
+                deflater.finish();
+                // Only keep the deflated bytes if they are smaller, the buffer is sized accordingly
+                byte[] deflated = new byte[utf8.length];
+                deflated[0] = DEFLATED;
+                int length = 1;
+                while (!deflater.finished() && length < deflated.length) {
+                    length += deflater.deflate(deflated, length, deflated.length - length);
+                }
+                if (deflater.finished()) {
+                    return Arrays.copyOf(deflated, length);
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        byte[] plain = new byte[utf8.length + 1];
+        plain[0] = PLAIN;
+        System.arraycopy(utf8, 0, plain, 1, utf8.length);
+        return plain;
+    }
+
+    /**
+     * Converts the stored form back to the text.
+     *
+     * @param stored the bytes written by {@link #compress(String)}, may be null
+     * @return the text, null if nothing is stored
+     */
+    public static String decompress(byte[] stored) {
+        if (stored == null || stored.length == 0) {
+            return stored == null ? null : "";
+        }
+        if (stored[0] == PLAIN) {
+            return new String(stored, 1, stored.length - 1, StandardCharsets.UTF_8);
+        }
+        if (stored[0] != DEFLATED) {
+            throw new IllegalArgumentException("Unknown text encoding: " + stored[0]);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored, 1, stored.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(stored.length * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated compressed text");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
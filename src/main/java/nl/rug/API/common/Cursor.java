@@ -0,0 +1,64 @@
+package nl.rug.API.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset paginated list: the sort key and the id of the last returned row.
+ * Clients only see the opaque encoded form of the cursor.
+ *
+ * @param key   the sort key of the last row (for example the addedOn timestamp in epoch seconds)
+ * @param nanos the nanoseconds of a timestamp key, timestamps are stored with microseconds (datetime(6)), 0 for other keys
+ * @param id    the id of the last row, used as tie breaker
+ */
+public record Cursor(long key, int nanos, int id) {
+
+    /**
+     * Creates a cursor with a sort key without fraction.
+     *
+     * @param key the sort key of the last row
+     * @param id  the id of the last row
+     */
+    public Cursor(long key, int id) {
+        this(key, 0, id);
+    }
+
+    /**
+     * Encodes the cursor into an opaque, url safe token.
+     *
+     * @return the token
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + ":" + nanos + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode()}.
+     *
+     * @param token the token sent by the client, may be null
+     * @return the cursor or null if no token was given
+     * @throws ResponseStatusException with code 400 if the token is malformed
+     */
+    public static Cursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected key, nanos and id");
+            }
+            int nanos = Integer.parseInt(parts[1]);
+            if (nanos < 0 || nanos > 999_999_999) {
+                throw new IllegalArgumentException("Nanos out of range");
+            }
+            return new Cursor(Long.parseLong(parts[0]), nanos, Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
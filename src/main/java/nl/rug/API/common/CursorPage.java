@@ -0,0 +1,45 @@
+package nl.rug.API.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset paginated list.
+ *
+ * @param items the rows of the page
+ * @param next  the cursor for the next page, null if this is the last page
+ * @param <T>   type of the rows
+ */
+public record CursorPage<T>(List<T> items, String next) {
+    /**
+     * Response header carrying the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Converts the rows of the page, keeping the cursor.
+     *
+     * @param mapper conversion of a single row
+     * @param <R>    the new type of the rows
+     * @return the converted page
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), next);
+    }
+
+    /**
+     * Builds the response for this page: the rows as body and the next cursor as header.
+     *
+     * @return ResponseEntity with code 200
+     */
+    public ResponseEntity<List<T>> toResponse() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (next != null) {
+            response.header(NEXT_CURSOR_HEADER, next);
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,42 @@
+package nl.rug.API.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The expand parameter of the list endpoints (for example expand=songs): the associations that are
+ * embedded in every listed item. Without it only the summaries are returned, every expanded association
+ * costs one more query for the whole page.
+ */
+public final class Expand {
+    private Expand() {
+    }
+
+    /**
+     * Parses a comma separated expand parameter.
+     *
+     * @param expand  the parameter passed by the client, may be null
+     * @param allowed the associations the endpoint can expand
+     * @return the requested associations, empty if nothing is expanded
+     * @throws ResponseStatusException with code 400 if an association can not be expanded
+     */
+    public static Set<String> parse(String expand, String... allowed) {
+        if (expand == null || expand.isBlank()) {
+            return Set.of();
+        }
+        Set<String> requested = Arrays.stream(expand.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        if (!List.of(allowed).containsAll(requested)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Expand must be one of " + String.join(", ", allowed));
+        }
+        return requested;
+    }
+}
@@ -0,0 +1,174 @@
+package nl.rug.API.common;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) pagination over entities that have an addedOn timestamp and an integer id.
+ * Pages are ordered most recent first by (addedOn, id), or descending by another sort key and id,
+ * and every page is fetched with a single query that seeks past the cursor, so the cost does not
+ * depend on how deep the page is.
+ */
+public final class Keyset {
+    /**
+     * Page size used when the client does not pass a limit (see the API specification).
+     */
+    public static final int DEFAULT_LIMIT = 50;
+
+    /**
+     * Upper bound for the page size.
+     */
+    public static final int MAX_LIMIT = 1000;
+
+    private Keyset() {
+    }
+
+    /**
+     * Restricts a query to the rows that come after the cursor, ordered descending by a sort key and id.
+     *
+     * @param cursor       the position of the last row of the previous page, may be null
+     * @param keyAttribute the attribute of the sort key
+     * @param keyOfCursor  converts the cursor to the sort key, in the type of the attribute
+     * @param <T>          type of the entity
+     * @param <K>          type of the sort key
+     * @return the specification, matching everything if there is no cursor
+     */
+    private static <T, K extends Comparable<? super K>> Specification<T> after(Cursor cursor, String keyAttribute, Function<Cursor, K> keyOfCursor) {
+        return (root, query, cb) -> {
+            if (cursor == null) {
+                return null;
+            }
+            K key = keyOfCursor.apply(cursor);
+            Path<K> path = root.get(keyAttribute);
+            return cb.or(
+                    cb.lessThan(path, key),
+                    cb.and(cb.equal(path, key), cb.lessThan(root.get("id"), cursor.id())));
+        };
+    }
+
+    /**
+     * Creates the cursor pointing at the given row.
+     * The timestamp is kept with its full precision (epoch seconds and nanoseconds): rows added within the same
+     * millisecond would otherwise compare as older than the cursor and be skipped.
+     *
+     * @param addedOn the addedOn timestamp of the row
+     * @param id      the id of the row
+     * @return the cursor
+     */
+    public static Cursor cursorOf(Timestamp addedOn, int id) {
+        Instant instant = addedOn.toInstant();
+        return new Cursor(instant.getEpochSecond(), instant.getNano(), id);
+    }
+
+    /**
+     * Converts the key of a cursor created by {@link #cursorOf(Timestamp, int)} back to the timestamp.
+     *
+     * @param cursor the cursor
+     * @return the addedOn timestamp of the row
+     */
+    public static Timestamp timestampOf(Cursor cursor) {
+        return Timestamp.from(Instant.ofEpochSecond(cursor.key(), cursor.nanos()));
+    }
+
+    /**
+     * Validates the requested page size.
+     *
+     * @param limit the limit passed by the client, may be null
+     * @return the page size to use
+     */
+    public static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Fetches one page of summaries of the rows matching the specification, most recent first.
+     *
+     * @param entityManager the entity manager
+     * @param entity        the queried entity
+     * @param summary       the selected summary, see {@link Summaries}
+     * @param spec          the filters of the query, may be null
+     * @param cursor        the token of the previous page, may be null for the first page
+     * @param limit         the page size
+     * @param keyOf         extracts the cursor of a summary
+     * @param <T>           type of the entity
+     * @param <R>           type of the summary
+     * @return the page
+     */
+    public static <T, R extends Record> CursorPage<R> page(EntityManager entityManager,
+                                                          Class<T> entity,
+                                                          Class<R> summary,
+                                                          Specification<T> spec,
+                                                          String cursor,
+                                                          int limit,
+                                                          Function<R, Cursor> keyOf) {
+        return page(entityManager, entity, summary, spec, cursor, limit, "addedOn", Keyset::timestampOf, keyOf);
+    }
+
+    /**
+     * Fetches one page of summaries of the rows matching the specification, ordered descending by a sort key and id.
+     * Only the attributes of the summary are selected.
+     * One row more than requested is read to find out if there is a next page.
+     *
+     * @param entityManager the entity manager
+     * @param entity        the queried entity
+     * @param summary       the selected summary, see {@link Summaries}
+     * @param spec          the filters of the query, may be null
+     * @param cursor        the token of the previous page, may be null for the first page
+     * @param limit         the page size
+     * @param keyAttribute  the attribute of the sort key
+     * @param keyOfCursor   converts a cursor to the sort key, in the type of the attribute
+     * @param keyOf         extracts the cursor of a summary
+     * @param <T>           type of the entity
+     * @param <R>           type of the summary
+     * @param <K>           type of the sort key
+     * @return the page
+     */
+    public static <T, R extends Record, K extends Comparable<? super K>> CursorPage<R> page(EntityManager entityManager,
+                                                                                            Class<T> entity,
+                                                                                            Class<R> summary,
+                                                                                            Specification<T> spec,
+                                                                                            String cursor,
+                                                                                            int limit,
+                                                                                            String keyAttribute,
+                                                                                            Function<Cursor, K> keyOfCursor,
+                                                                                            Function<R, Cursor> keyOf) {
+        Specification<T> pageSpec = Specification.where(spec).and(after(Cursor.decode(cursor), keyAttribute, keyOfCursor));
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(summary);
+        Root<T> root = query.from(entity);
+        Predicate where = pageSpec.toPredicate(root, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        query.select(Summaries.select(root, cb, summary))
+                .orderBy(cb.desc(root.get(keyAttribute)), cb.desc(root.get("id")));
+        List<R> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+        return toPage(rows, limit, keyOf);
+    }
+
+    private static <T> CursorPage<T> toPage(List<T> rows, int limit, Function<T, Cursor> keyOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, keyOf.apply(items.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,33 @@
+package nl.rug.API.common;
+
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Selection;
+
+import java.util.Arrays;
+
+/**
+ * Summary projections of entities: records whose components are named like attributes of the entity.
+ * Only those attributes are selected, so long texts that are not part of the summary are not read.
+ */
+public final class Summaries {
+    private Summaries() {
+    }
+
+    /**
+     * Builds the select clause of a summary query.
+     *
+     * @param from    the queried entity or joined association
+     * @param cb      the criteria builder of the query
+     * @param summary the record type, its component types have to match the attribute types
+     * @param <R>     type of the summary
+     * @return the constructor expression selecting the components of the summary
+     */
+    public static <R extends Record> CompoundSelection<R> select(From<?, ?> from, CriteriaBuilder cb, Class<R> summary) {
+        Selection<?>[] attributes = Arrays.stream(summary.getRecordComponents())
+                .map(component -> from.get(component.getName()))
+                .toArray(Selection<?>[]::new);
+        return cb.construct(summary, attributes);
+    }
+}
@@ -0,0 +1,39 @@
+package nl.rug.API.common;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Reads the expected entity version of conditional updates.
+ * Clients send the version field of the entity they read in the If-Match header, for example {@code If-Match: "3"}.
+ */
+public final class Versions {
+
+    private Versions() {
+    }
+
+    /**
+     * Parses an If-Match header.
+     *
+     * @param ifMatch the header value, may be null
+     * @return the expected version or null if any version may be updated
+     * @throws ResponseStatusException with code 400 if the header is not a version
+     */
+    public static Long fromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "If-Match must contain the version of the entity");
+        }
+    }
+}
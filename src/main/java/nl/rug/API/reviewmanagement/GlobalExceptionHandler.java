@@ -1,6 +1,9 @@
 package nl.rug.API.reviewmanagement;
 
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -35,4 +38,28 @@ public class GlobalExceptionHandler {
         // Return a ResponseEntity with the errors mapped and a BAD_REQUEST status
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Handles exceptions of type {@link EntityNotFoundException} thrown by the services when a requested
+     * entity (or import job) does not exist.
+     *
+     * @param e the {@link EntityNotFoundException} exception that was thrown
+     * @return a {@link ResponseEntity} with the message and a NOT_FOUND status
+     */
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> handleEntityNotFoundException(EntityNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles conflicting updates: the version sent in If-Match is outdated ({@link OptimisticLockException})
+     * or the entity was changed by a concurrent transaction ({@link ObjectOptimisticLockingFailureException}).
+     *
+     * @param e the exception that was thrown
+     * @return a {@link ResponseEntity} with the message and a CONFLICT status
+     */
+    @ExceptionHandler({OptimisticLockException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<String> handleOptimisticLockException(RuntimeException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+    }
 }
@@ -0,0 +1,39 @@
+package nl.rug.API.reviewmanagement;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running totals of the ratings of one media item (book or song).
+ * The totals are updated in the same transaction as the reviews themselves,
+ * so the average rating can be read without loading any review.
+ */
+@Entity
+@Table(name = "rating_aggregate")
+@Getter
+@Setter
+@NoArgsConstructor
+public class RatingAggregate {
+    @EmbeddedId
+    private RatingAggregateId id;
+
+    @Column(nullable = false)
+    private long ratingSum; // Sum of the ratings of all reviews of the media item
+
+    @Column(nullable = false)
+    private long ratingCount; // Number of reviews of the media item
+
+    /**
+     * Calculates the average rating.
+     *
+     * @return the average rating, or 0.0 if there are no reviews
+     */
+    public double getAverage() {
+        return ratingCount == 0 ? 0.0 : (double) ratingSum / ratingCount;
+    }
+}
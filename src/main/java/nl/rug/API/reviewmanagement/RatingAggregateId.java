@@ -0,0 +1,29 @@
+package nl.rug.API.reviewmanagement;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Primary key of a {@link RatingAggregate}: the reviewed media item.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class RatingAggregateId implements Serializable {
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ReviewType reviewType;
+
+    @Column(nullable = false)
+    private Integer mediaId;
+}
@@ -0,0 +1,64 @@
+package nl.rug.API.reviewmanagement;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+/**
+ * Repository interface for {@link RatingAggregate} entities.
+ **/
+public interface RatingAggregateRepository extends JpaRepository<RatingAggregate, RatingAggregateId> {
+
+    /**
+     * Atomically adds to the totals of a media item, creating the row if it does not exist yet.
+     *
+     * @param reviewType the type of the media item (name of a {@link ReviewType})
+     * @param mediaId    the id of the media item
+     * @param sum        the rating to add (negative to subtract)
+     * @param count      the number of reviews to add (negative to subtract)
+     */
+    @Modifying
+    @Query(value = "insert into rating_aggregate (review_type, media_id, rating_sum, rating_count) "
+            + "values (:reviewType, :mediaId, :sum, :count) "
+            + "on duplicate key update rating_sum = rating_sum + values(rating_sum), "
+            + "rating_count = rating_count + values(rating_count)", nativeQuery = true)
+    void increment(String reviewType, int mediaId, long sum, long count);
+
+    /**
+     * Finds the media items that have reviews or rating totals.
+     *
+     * @return the review type name and media id of every media item
+     */
+    @Query(value = "select review_type, media_id from review group by review_type, media_id "
+            + "union select review_type, media_id from rating_aggregate", nativeQuery = true)
+    List<Object[]> findRatedMedia();
+
+    /**
+     * Replaces the totals of a media item with the totals computed from its reviews, in one statement.
+     * The reviews are read with the locks of INSERT ... SELECT, so reviews of the media item that are added
+     * or removed concurrently are either counted or wait until the totals are written.
+     *
+     * @param reviewType the type of the media item (name of a {@link ReviewType})
+     * @param mediaId    the id of the media item
+     */
+    @Modifying
+    @Query(value = "insert into rating_aggregate (review_type, media_id, rating_sum, rating_count) "
+            + "select :reviewType, :mediaId, coalesce(sum(review_rating), 0), count(*) from review "
+            + "where review_type = :reviewType and media_id = :mediaId "
+            + "on duplicate key update rating_sum = values(rating_sum), rating_count = values(rating_count)", nativeQuery = true)
+    void recompute(String reviewType, int mediaId);
+
+    /**
+     * Removes the totals of a media item if it has no reviews.
+     *
+     * @param reviewType the type of the media item (name of a {@link ReviewType})
+     * @param mediaId    the id of the media item
+     * @return 1 if the totals were removed, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "delete from rating_aggregate where review_type = :reviewType and media_id = :mediaId and rating_count = 0",
+            nativeQuery = true)
+    int deleteIfEmpty(String reviewType, int mediaId);
+}
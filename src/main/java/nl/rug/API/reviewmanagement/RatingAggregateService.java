@@ -0,0 +1,137 @@
+package nl.rug.API.reviewmanagement;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per media rating totals, see {@link RatingAggregate}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RatingAggregateService {
+    private final RatingAggregateRepository ratingAggregateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reviews.ratings.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    /**
+     * Adds the rating of a new review to the totals of its media item.
+     *
+     * @param review the added review
+     */
+    @Transactional
+    public void add(Review review) {
+        ratingAggregateRepository.increment(review.getReviewType().name(), review.getMediaId(), review.getReviewRating(), 1);
+        eventPublisher.publishEvent(new RatingChangedEvent(review.getReviewType(), review.getMediaId()));
+    }
+
+    /**
+     * Adds the ratings of a batch of new reviews, with one update per media item.
+     *
+     * @param reviews the added reviews
+     */
+    @Transactional
+    public void addAll(List<Review> reviews) {
+        Map<RatingAggregateId, long[]> totals = new LinkedHashMap<>();
+        for (Review review : reviews) {
+            long[] total = totals.computeIfAbsent(new RatingAggregateId(review.getReviewType(), review.getMediaId()), id -> new long[2]);
+            total[0] += review.getReviewRating();
+            total[1]++;
+        }
+        totals.forEach((id, total) -> {
+            ratingAggregateRepository.increment(id.getReviewType().name(), id.getMediaId(), total[0], total[1]);
+            eventPublisher.publishEvent(new RatingChangedEvent(id.getReviewType(), id.getMediaId()));
+        });
+    }
+
+    /**
+     * Removes the rating of a review from the totals of its media item.
+     *
+     * @param review the removed review (with the values it had when it was added)
+     */
+    @Transactional
+    public void remove(Review review) {
+        ratingAggregateRepository.increment(review.getReviewType().name(), review.getMediaId(), -review.getReviewRating(), -1);
+        eventPublisher.publishEvent(new RatingChangedEvent(review.getReviewType(), review.getMediaId()));
+    }
+
+    /**
+     * Removes the totals of a media item, used when the media item and its reviews are deleted.
+     *
+     * @param reviewType the type of the media item
+     * @param mediaId    the id of the media item
+     */
+    @Transactional
+    public void delete(ReviewType reviewType, int mediaId) {
+        RatingAggregateId id = new RatingAggregateId(reviewType, mediaId);
+        if (ratingAggregateRepository.existsById(id)) {
+            ratingAggregateRepository.deleteById(id);
+            eventPublisher.publishEvent(new RatingChangedEvent(reviewType, mediaId));
+        }
+    }
+
+    /**
+     * Reads the average rating of a media item.
+     *
+     * @param reviewType the type of the media item
+     * @param mediaId    the id of the media item
+     * @return the average rating, or 0.0 if there are no reviews
+     */
+    public double getAverageRating(ReviewType reviewType, int mediaId) {
+        return ratingAggregateRepository.findById(new RatingAggregateId(reviewType, mediaId))
+                .map(RatingAggregate::getAverage)
+                .orElse(0.0);
+    }
+
+    /**
+     * Recomputes all totals from the stored reviews, to repair totals that no longer match the reviews.
+     * Existing totals are backfilled by the V10 migration. Every media item is recomputed in its own transaction
+     * with one upsert (see {@link RatingAggregateRepository#recompute}), so reviews added or removed meanwhile
+     * are never lost and the totals stay readable while the rebuild runs.
+     *
+     * @return the number of media items with reviews
+     */
+    public int rebuild() {
+        int rebuilt = 0;
+        for (Object[] media : ratingAggregateRepository.findRatedMedia()) {
+            String reviewType = (String) media[0];
+            int mediaId = ((Number) media[1]).intValue();
+            Boolean rated = transactionTemplate.execute(status -> {
+                ratingAggregateRepository.recompute(reviewType, mediaId);
+                return ratingAggregateRepository.deleteIfEmpty(reviewType, mediaId) == 0;
+            });
+            if (Boolean.TRUE.equals(rated)) {
+                rebuilt++;
+            }
+        }
+        log.info("Rebuilt rating aggregates of {} media items", rebuilt);
+        for (ReviewType reviewType : ReviewType.values()) {
+            eventPublisher.publishEvent(new RatingChangedEvent(reviewType, null));
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Rebuilds the totals when the application starts, if enabled with reviews.ratings.rebuild-on-startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+}
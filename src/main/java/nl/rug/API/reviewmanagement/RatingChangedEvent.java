@@ -0,0 +1,11 @@
+package nl.rug.API.reviewmanagement;
+
+/**
+ * Published by {@link RatingAggregateService} whenever the rating totals of a media item change.
+ * Listeners use it to invalidate values derived from the ratings, such as cached album ratings.
+ *
+ * @param reviewType the type of the media item
+ * @param mediaId    the id of the media item, null if the totals of all items were rebuilt
+ */
+public record RatingChangedEvent(ReviewType reviewType, Integer mediaId) {
+}
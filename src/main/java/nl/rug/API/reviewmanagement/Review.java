@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import nl.rug.API.common.CompressedTextConverter;
 
 import java.sql.Timestamp;
 
@@ -15,6 +16,10 @@ import java.sql.Timestamp;
 @Setter
 @Getter
 @Entity
+@Table(indexes = {
+        @Index(name = "ix_review_media_added_on", columnList = "reviewType, mediaId, addedOn"),
+        @Index(name = "ix_review_media_rating", columnList = "reviewType, mediaId, reviewRating")
+})
 @NoArgsConstructor
 public class Review {
     @Id
@@ -31,10 +36,12 @@ public class Review {
     @Column(nullable = false)
     private String author;
 
-    @Column(nullable = false)
-    private String reviewFullText;
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, columnDefinition = "longblob")
+    private String reviewFullText; // Stored compressed, not selected by the list endpoints (see ReviewSummary)
 
-    @Column(nullable = false)
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, columnDefinition = "longblob")
     private String reviewDescription;
 
     @Column(nullable = false)
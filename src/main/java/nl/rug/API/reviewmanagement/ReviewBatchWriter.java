@@ -0,0 +1,54 @@
+package nl.rug.API.reviewmanagement;
+
+import lombok.RequiredArgsConstructor;
+import nl.rug.API.common.CompressedTextConverter;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Inserts reviews as one JDBC batch and adds their ratings to the totals, used by the {@link ReviewWriteBehindQueue}.
+ * Review ids are generated by the database (identity column), which Hibernate can not batch, so the inserts
+ * are written with JDBC. The texts are compressed like the entity does (see {@link CompressedTextConverter}).
+ */
+@Component
+@RequiredArgsConstructor
+public class ReviewBatchWriter {
+    private static final String INSERT = "insert into review (review_type, title, author, review_full_text, review_description,"
+            + " affiliation, review_rating, media_id, media_title, added_on, updated_on)"
+            + " values (:reviewType, :title, :author, :reviewFullText, :reviewDescription,"
+            + " :affiliation, :reviewRating, :mediaId, :mediaTitle, :addedOn, :updatedOn)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final RatingAggregateService ratingAggregateService;
+
+    /**
+     * Inserts the reviews, has to run in the transaction of the batch.
+     *
+     * @param reviews the reviews to insert
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insert(List<Review> reviews) {
+        SqlParameterSource[] rows = reviews.stream()
+                .map(review -> new MapSqlParameterSource()
+                        .addValue("reviewType", review.getReviewType().name())
+                        .addValue("title", review.getTitle())
+                        .addValue("author", review.getAuthor())
+                        .addValue("reviewFullText", CompressedTextConverter.compress(review.getReviewFullText()))
+                        .addValue("reviewDescription", CompressedTextConverter.compress(review.getReviewDescription()))
+                        .addValue("affiliation", review.getAffiliation())
+                        .addValue("reviewRating", review.getReviewRating())
+                        .addValue("mediaId", review.getMediaId())
+                        .addValue("mediaTitle", review.getMediaTitle())
+                        .addValue("addedOn", review.getAddedOn())
+                        .addValue("updatedOn", review.getUpdatedOn()))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT, rows);
+        ratingAggregateService.addAll(reviews);
+    }
+}
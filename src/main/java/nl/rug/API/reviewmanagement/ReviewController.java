@@ -2,11 +2,18 @@ package nl.rug.API.reviewmanagement;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import nl.rug.API.common.Keyset;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -19,18 +26,58 @@ import java.util.List;
 @Validated
 @RequiredArgsConstructor
 public class ReviewController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final ReviewService reviewService;
+    private final RatingAggregateService ratingAggregateService;
+    private final ReviewWriteBehindQueue reviewWriteBehindQueue;
 
     /**
-     * Retrieves all reviews.
+     * Retrieves the reviews, one page at a time (most recent first).
      *
-     * @return A ResponseEntity containing a list of reviews and the HTTP status.
+     * @param limit      Optional page size, 50 if not given.
+     * @param cursor     Optional token of the previous page, as returned in the X-Next-Cursor header.
+     * @param reviewType Optional type of the reviewed media.
+     * @param mediaId    Optional id of the reviewed media.
+     * @param from       Optional first day (ISO date) on which the reviews were added.
+     * @param to         Optional last day (ISO date) on which the reviews were added.
+     * @return A ResponseEntity containing a list of reviews (without their texts) and the HTTP status.
      */
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<List<Review>> getAllReviews() {
-        List<Review> reviews = reviewService.getAllReviews();
-        return new ResponseEntity<>(reviews, HttpStatus.OK);
+    public ResponseEntity<List<ReviewSummary>> getAllReviews(@RequestParam(value = "limit", required = false) Integer limit,
+                                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                                             @RequestParam(value = "reviewType", required = false) ReviewType reviewType,
+                                                             @RequestParam(value = "mediaId", required = false) Integer mediaId,
+                                                             @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                             @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return reviewService.getReviews(filter(reviewType, mediaId, from, to), cursor, Keyset.limit(limit)).toResponse();
+    }
+
+    /**
+     * Streams all reviews matching the filters as NDJSON (Accept: application/x-ndjson), most recent first.
+     * The reviews are written while they are read from the database.
+     *
+     * @param reviewType Optional type of the reviewed media.
+     * @param mediaId    Optional id of the reviewed media.
+     * @param from       Optional first day (ISO date) on which the reviews were added.
+     * @param to         Optional last day (ISO date) on which the reviews were added.
+     * @return The stream of reviews, one JSON document per line.
+     */
+    @GetMapping(produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamReviews(@RequestParam(value = "reviewType", required = false) ReviewType reviewType,
+                                                               @RequestParam(value = "mediaId", required = false) Integer mediaId,
+                                                               @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                               @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ReviewFilter filter = filter(reviewType, mediaId, from, to);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(out -> reviewService.streamReviews(filter, out));
+    }
+
+    private static ReviewFilter filter(ReviewType reviewType, Integer mediaId, LocalDate from, LocalDate to) {
+        return new ReviewFilter(reviewType, mediaId,
+                from == null ? null : Timestamp.valueOf(from.atStartOfDay()),
+                to == null ? null : Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
     }
 
     /**
@@ -48,17 +95,25 @@ public class ReviewController {
 
     /**
      * Adds a new review based on the provided ReviewDTO.
+     * In write-behind mode (reviews.write-behind.enabled) the validated review is queued and acknowledged
+     * with 202, it is stored by the next batch. A full queue answers 429.
      *
      * @param reviewDTO The ReviewDTO object containing review data.
-     * @return The newly created review.
+     * @return The newly created review (201) or the accepted review without id (202).
      * @throws if any validation constraints are violated.
      */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Review addReview(@Valid @RequestBody ReviewDTO reviewDTO) {
+    public ResponseEntity<Review> addReview(@Valid @RequestBody ReviewDTO reviewDTO) {
         Review review = new Review(reviewDTO.reviewType(), reviewDTO.title(), reviewDTO.author(), reviewDTO.reviewFullText(), reviewDTO.reviewDescription(), reviewDTO.affiliation(), reviewDTO.reviewRating(), reviewDTO.mediaId(), reviewDTO.mediaTitle());
 
-        return reviewService.addReview(review);
+        if (!reviewWriteBehindQueue.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(reviewService.addReview(review));
+        }
+        reviewService.validateNewReview(review);
+        if (!reviewWriteBehindQueue.offer(review)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many reviews are waiting to be stored, try again later");
+        }
+        return ResponseEntity.accepted().body(review);
     }
 
     /**
@@ -88,4 +143,16 @@ public class ReviewController {
     public void deleteReview(@PathVariable int id) {
         reviewService.deleteReview(id);
     }
+
+    /**
+     * Recomputes the rating totals of all books and songs from the stored reviews.
+     * Used to repair the totals, reviews can be added and removed while it runs.
+     *
+     * @return The number of media items that have reviews.
+     */
+    @PostMapping("/ratings/rebuild")
+    @ResponseStatus(HttpStatus.OK)
+    public int rebuildRatings() {
+        return ratingAggregateService.rebuild();
+    }
 }
@@ -0,0 +1,46 @@
+package nl.rug.API.reviewmanagement;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional filters of the review list. All given filters have to match (intersection).
+ *
+ * @param reviewType type of the reviewed media item, may be null
+ * @param mediaId    id of the reviewed media item, may be null
+ * @param from       reviews added at or after this moment, may be null
+ * @param to         reviews added before this moment, may be null
+ */
+public record ReviewFilter(ReviewType reviewType,
+                           Integer mediaId,
+                           Timestamp from,
+                           Timestamp to) {
+
+    /**
+     * Combines the given filters into a single where clause.
+     *
+     * @return Specification matching the reviews that satisfy all filters
+     */
+    public Specification<Review> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (reviewType != null) {
+                predicates.add(cb.equal(root.get("reviewType"), reviewType));
+            }
+            if (mediaId != null) {
+                predicates.add(cb.equal(root.get("mediaId"), mediaId));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("addedOn"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("addedOn"), to));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -0,0 +1,243 @@
+package nl.rug.API.reviewmanagement;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log of the reviews accepted by the {@link ReviewWriteBehindQueue}, one JSON document per line.
+ * The log is split into segments named after the log file and the offset of their first byte
+ * (e.g. review-journal.ndjson.0000000000000001024); offsets count the bytes of all segments together.
+ * A checkpoint file next to the log holds the offset up to which the reviews are stored in the database;
+ * the entries after the checkpoint are replayed when the application starts.
+ * A new segment is started at a checkpoint once the current one exceeds the segment size, and segments
+ * that lie completely before the checkpoint are deleted, so the log does not grow under steady load.
+ * Appends are made durable with group commit: {@link #sync(long)} forces the log once for everything
+ * appended so far, callers that waited for that force return without forcing again.
+ */
+@Slf4j
+final class ReviewJournal implements AutoCloseable {
+    /**
+     * An entry read back from the log.
+     *
+     * @param review the accepted review
+     * @param end    the offset of the end of the entry, to be passed to {@link #checkpoint(long)} once it is stored
+     */
+    record Entry(Review review, long end) {
+    }
+
+    private final Path file;
+    private final Path checkpointFile;
+    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final long segmentSize;
+    private final Object syncLock = new Object();
+    private final AtomicLong synced = new AtomicLong();
+    // Guarded by this
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private FileChannel active;
+    private long activeStart;
+    private long end;
+
+    ReviewJournal(Path file, ObjectMapper objectMapper, boolean fsync, long segmentSize) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        this.file = file.toAbsolutePath();
+        this.checkpointFile = this.file.resolveSibling(file.getFileName() + ".checkpoint");
+        this.objectMapper = objectMapper;
+        this.fsync = fsync;
+        this.segmentSize = segmentSize;
+
+        String prefix = file.getFileName() + ".";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path path : stream) {
+                String suffix = path.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(suffix), path);
+                }
+            }
+        }
+        // Appends always start a new segment, so they never follow a line that was only partially written
+        Map.Entry<Long, Path> last = segments.lastEntry();
+        long start = last == null ? 0 : last.getKey() + Files.size(last.getValue());
+        openSegment(Math.max(start, readCheckpoint()));
+        synced.set(end);
+    }
+
+    /**
+     * Serializes a review to a log line, done before taking the locks of the caller.
+     *
+     * @param review the accepted review
+     * @return the line, including the line separator
+     */
+    byte[] encode(Review review) throws JsonProcessingException {
+        return (objectMapper.writeValueAsString(review) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends an entry, without forcing it to disk (see {@link #sync(long)}).
+     *
+     * @param line the entry, see {@link #encode(Review)}
+     * @return the offset of the end of the entry, to be passed to {@link #sync(long)} and {@link #checkpoint(long)}
+     */
+    synchronized long append(byte[] line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            active.write(buffer, end - activeStart + buffer.position());
+        }
+        end += line.length;
+        return end;
+    }
+
+    /**
+     * Forces the log to disk up to at least the given offset. Concurrent callers share one force:
+     * while one caller forces, the others wait and then find their entries already covered.
+     *
+     * @param offset the end of the entry that has to be durable
+     */
+    void sync(long offset) throws IOException {
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced.get() >= offset) {
+                return;
+            }
+            FileChannel channel;
+            long until;
+            synchronized (this) {
+                channel = active;
+                until = end;
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // The segment was replaced in the meantime, it was forced before it was closed
+                if (synced.get() < offset) {
+                    throw e;
+                }
+                return;
+            }
+            synced.accumulateAndGet(until, Math::max);
+        }
+    }
+
+    /**
+     * Records that all entries up to an offset are stored in the database, starts a new segment if the current
+     * one is full and deletes the segments before the checkpoint. Only called by the flusher.
+     *
+     * @param offset the end of the last stored entry
+     */
+    void checkpoint(long offset) throws IOException {
+        Files.writeString(checkpointFile, Long.toString(offset), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        List<Path> obsolete;
+        synchronized (this) {
+            if (end - activeStart >= segmentSize) {
+                roll();
+            }
+            // The segment holding the checkpoint is kept, the ones before it are stored completely
+            Long current = segments.floorKey(offset);
+            Map<Long, Path> before = current == null ? Map.of() : segments.headMap(current, false);
+            obsolete = new ArrayList<>(before.values());
+            before.clear();
+        }
+        for (Path segment : obsolete) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    /**
+     * Reads the entries after the checkpoint, the reviews that may not have been stored.
+     * Only called before the first append.
+     *
+     * @return the entries in the order they were accepted
+     */
+    synchronized List<Entry> pending() throws IOException {
+        long checkpoint = readCheckpoint();
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            long start = segment.getKey();
+            if (segment.getValue().equals(currentSegmentPath()) || start + Files.size(segment.getValue()) <= checkpoint) {
+                continue;
+            }
+            byte[] bytes = Files.readAllBytes(segment.getValue());
+            int from = (int) Math.max(0, checkpoint - start);
+            for (int i = from; i < bytes.length; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                String line = new String(bytes, from, i - from, StandardCharsets.UTF_8);
+                if (!line.isBlank()) {
+                    try {
+                        entries.add(new Entry(objectMapper.readValue(line, Review.class), start + i + 1));
+                    } catch (JsonProcessingException e) {
+                        log.warn("Skipping unreadable review journal entry: {}", e.getOriginalMessage());
+                    }
+                }
+                from = i + 1;
+            }
+            // Bytes after the last line separator are an append that was interrupted, it was never acknowledged
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.close();
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String value = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn("Unreadable review journal checkpoint '{}', replaying all segments", value);
+            return 0;
+        }
+    }
+
+    private void roll() throws IOException {
+        if (fsync) {
+            active.force(false);
+            synced.accumulateAndGet(end, Math::max);
+        }
+        active.close();
+        openSegment(end);
+    }
+
+    private void openSegment(long start) throws IOException {
+        Path path = segmentPath(start);
+        active = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        active.truncate(0);
+        activeStart = start;
+        end = start;
+        segments.put(start, path);
+    }
+
+    private Path currentSegmentPath() {
+        return segmentPath(activeStart);
+    }
+
+    private Path segmentPath(long start) {
+        return file.resolveSibling(file.getFileName() + "." + String.format("%019d", start));
+    }
+}
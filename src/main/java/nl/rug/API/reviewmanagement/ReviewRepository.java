@@ -1,11 +1,26 @@
 package nl.rug.API.reviewmanagement;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * Repository interface for {@link Review} entities.
- * This interface extends the {@link CrudRepository} provided by Spring Data,
- * enabling standard CRUD operations on the Review entity.
+ * This interface extends the {@link JpaRepository} provided by Spring Data,
+ * enabling standard CRUD and paging operations on the Review entity, and
+ * {@link JpaSpecificationExecutor} for dynamically filtered queries and {@link ReviewStreamRepository} for streaming.
  **/
-public interface ReviewRepository extends CrudRepository<Review, Integer> {
+public interface ReviewRepository extends JpaRepository<Review, Integer>, JpaSpecificationExecutor<Review>, ReviewStreamRepository {
+
+    /**
+     * Deletes the reviews of a media item in one statement.
+     *
+     * @param reviewType the type of the media item
+     * @param mediaId    the id of the media item
+     * @return the number of deleted reviews
+     */
+    @Modifying
+    @Query("delete from Review r where r.reviewType = :reviewType and r.mediaId = :mediaId")
+    int deleteByMedia(ReviewType reviewType, int mediaId);
 }
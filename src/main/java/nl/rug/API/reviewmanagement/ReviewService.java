@@ -1,16 +1,33 @@
 package nl.rug.API.reviewmanagement;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
-import nl.rug.API.bookmanagement.Book;
+import nl.rug.API.common.Cursor;
+import nl.rug.API.common.CursorPage;
+import nl.rug.API.common.Keyset;
+import nl.rug.API.common.Summaries;
 import nl.rug.API.bookmanagement.BookRepository;
-import nl.rug.API.songmanagement.Song;
 import nl.rug.API.songmanagement.SongRepository;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.StreamSupport;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for handling CRUD operations for reviews.
@@ -21,14 +38,47 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final BookRepository bookRepository;
     private final SongRepository songRepository;
+    private final RatingAggregateService ratingAggregateService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     /**
-     * Retrieves all reviews from the repository.
+     * Retrieves one page of the reviews matching the filters, most recently added first.
      *
-     * @return a list of all reviews
+     * @param filter the filters, applied in the query
+     * @param cursor the token of the previous page, null for the first page
+     * @param limit  the page size
+     * @return the page of reviews
      */
-    public List<Review> getAllReviews() {
-        return StreamSupport.stream(reviewRepository.findAll().spliterator(), false).toList();
+    public CursorPage<ReviewSummary> getReviews(ReviewFilter filter, String cursor, int limit) {
+        return Keyset.page(entityManager, Review.class, ReviewSummary.class, filter.toSpecification(), cursor, limit,
+                review -> Keyset.cursorOf(review.addedOn(), review.id()));
+    }
+
+    /**
+     * Writes the reviews matching the filters as NDJSON (one JSON document per line), most recently added first.
+     * The summaries are read through a database cursor and written one at a time, so memory use does not depend
+     * on the number of reviews.
+     *
+     * @param filter the filters, applied in the query
+     * @param out    the stream to write to, it is not closed
+     * @return the number of written reviews
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public long streamReviews(ReviewFilter filter, OutputStream out) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null);
+             Stream<ReviewSummary> reviews = reviewRepository.streamSummaries(filter.toSpecification())) {
+            for (ReviewSummary review : (Iterable<ReviewSummary>) reviews::iterator) {
+                objectMapper.writeValue(generator, review);
+                generator.writeRaw('\n');
+                written++;
+            }
+        }
+        return written;
     }
 
     /**
@@ -44,7 +94,9 @@ public class ReviewService {
     }
 
     /**
-     * Adds a new review to the repository and updates the associated media (book or song) with the new review.
+     * Adds a new review to the repository.
+     * The review references its media item (book or song) by review type and media id, so adding a review
+     * is one insert, independent of the number of reviews the media item already has.
      *
      * @param review the review to add
      * @return the added review
@@ -52,29 +104,97 @@ public class ReviewService {
      */
     @Transactional
     public Review addReview(Review review) {
+        validateNewReview(review);
         reviewRepository.save(review);
+        ratingAggregateService.add(review);
 
-        switch (review.getReviewType()) {
-            case BOOK -> {
-                Book book = bookRepository.findById(review.getMediaId()).orElseThrow(
-                        () -> new EntityNotFoundException("Error: Book with id " + review.getMediaId() + " not found"));
-                book.getReviews().add(review);
-                bookRepository.save(book);
-            }
-            case SONG -> {
-                Song song = songRepository.findById(review.getMediaId()).orElseThrow(
-                        () -> new EntityNotFoundException("Error: Song with id " + review.getMediaId() + " not found"));
-                song.getReviews().add(review);
-                songRepository.save(song);
-            }
-            default -> throw new IllegalStateException("Unexpected value: " + review.getReviewType());
+        return review;
+    }
+
+    /**
+     * Checks that a new review is complete and that its media item exists, before it is stored
+     * (directly or by the write-behind queue).
+     *
+     * @param review the new review
+     * @throws ResponseStatusException with code 400 if a required field is missing
+     * @throws EntityNotFoundException if the associated media (book or song) is not found
+     */
+    public void validateNewReview(Review review) {
+        if (review.getReviewType() == null || review.getMediaId() == null || review.getReviewRating() == null
+                || review.getTitle() == null || review.getAuthor() == null || review.getReviewFullText() == null
+                || review.getReviewDescription() == null || review.getAffiliation() == null || review.getMediaTitle() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "All fields of a review are required");
+        }
+        boolean exists = switch (review.getReviewType()) {
+            case BOOK -> bookRepository.existsById(review.getMediaId());
+            case SONG -> songRepository.existsById(review.getMediaId());
+        };
+        if (!exists) {
+            throw new EntityNotFoundException("Error: " + (review.getReviewType() == ReviewType.BOOK ? "Book" : "Song")
+                    + " with id " + review.getMediaId() + " not found");
         }
+    }
 
-        return review;
+    /**
+     * Retrieves one page of the reviews of a media item.
+     * Both orders are served by an index on (reviewType, mediaId, sort key), so a page is one index range scan.
+     *
+     * @param reviewType the type of the media item
+     * @param mediaId    the id of the media item
+     * @param sort       newest or best rated first
+     * @param cursor     the token of the previous page, null for the first page
+     * @param limit      the page size
+     * @return the page of reviews
+     */
+    public CursorPage<ReviewSummary> getMediaReviews(ReviewType reviewType, int mediaId, ReviewSort sort, String cursor, int limit) {
+        Specification<Review> media = (root, query, cb) -> cb.and(
+                cb.equal(root.get("reviewType"), reviewType),
+                cb.equal(root.get("mediaId"), mediaId));
+        if (sort == ReviewSort.RATING) {
+            return Keyset.page(entityManager, Review.class, ReviewSummary.class, media, cursor, limit,
+                    "reviewRating", position -> (int) position.key(), review -> new Cursor(review.reviewRating(), review.id()));
+        }
+        return Keyset.page(entityManager, Review.class, ReviewSummary.class, media, cursor, limit,
+                review -> Keyset.cursorOf(review.addedOn(), review.id()));
+    }
+
+    /**
+     * Retrieves the review summaries of several media items with one query, newest first.
+     *
+     * @param reviewType the type of the media items
+     * @param mediaIds   the ids of the media items
+     * @return the reviews per media id, media items without reviews are missing
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, List<ReviewSummary>> getMediaReviewSummaries(ReviewType reviewType, Collection<Integer> mediaIds) {
+        if (mediaIds.isEmpty()) {
+            return Map.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReviewSummary> query = cb.createQuery(ReviewSummary.class);
+        Root<Review> root = query.from(Review.class);
+        query.select(Summaries.select(root, cb, ReviewSummary.class))
+                .where(cb.equal(root.get("reviewType"), reviewType), root.get("mediaId").in(mediaIds))
+                .orderBy(cb.desc(root.get("addedOn")), cb.desc(root.get("id")));
+        return entityManager.createQuery(query).getResultStream()
+                .collect(Collectors.groupingBy(ReviewSummary::mediaId, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    /**
+     * Deletes all reviews of a media item and its rating totals, used when the media item is deleted.
+     *
+     * @param reviewType the type of the media item
+     * @param mediaId    the id of the media item
+     */
+    @Transactional
+    public void deleteMediaReviews(ReviewType reviewType, int mediaId) {
+        reviewRepository.deleteByMedia(reviewType, mediaId);
+        ratingAggregateService.delete(reviewType, mediaId);
     }
 
     /**
      * Updates an existing review with new details provided in the review object.
+     * The rating totals of the media item are adjusted if the rating changed.
      *
      * @param id     the ID of the review to update
      * @param review the updated review details
@@ -85,7 +205,18 @@ public class ReviewService {
     public Review updateReview(int id, Review review) {
         Review existingReview = reviewRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException("Review with id " + id + " not found"));
+        ReviewType oldType = existingReview.getReviewType();
+        Integer oldRating = existingReview.getReviewRating();
         updateReviewInfo(existingReview, review);
+
+        if (oldType != existingReview.getReviewType() || !oldRating.equals(existingReview.getReviewRating())) {
+            Review old = new Review();
+            old.setReviewType(oldType);
+            old.setMediaId(existingReview.getMediaId());
+            old.setReviewRating(oldRating);
+            ratingAggregateService.remove(old);
+            ratingAggregateService.add(existingReview);
+        }
         return reviewRepository.save(existingReview);
     }
 
@@ -111,7 +242,7 @@ public class ReviewService {
         if (review.getAffiliation() != null) {
             existingReview.setAffiliation(review.getAffiliation());
         }
-        if (review.getReviewRating() != 0) {
+        if (review.getReviewRating() != null && review.getReviewRating() != 0) {
             existingReview.setReviewRating(review.getReviewRating());
         }
 
@@ -121,14 +252,15 @@ public class ReviewService {
     }
 
     /**
-     * Deletes a review by its ID.
+     * Deletes a review by its ID and removes its rating from the totals of the media item.
      *
      * @param id the ID of the review to delete
      */
+    @Transactional
     public void deleteReview(int id) {
-        if (!reviewRepository.existsById(id)) {
-            throw new EntityNotFoundException("Error: Review with id " + id + " not found");
-        }
-        reviewRepository.deleteById(id);
+        Review review = reviewRepository.findById(id).orElseThrow(
+                () -> new EntityNotFoundException("Error: Review with id " + id + " not found"));
+        ratingAggregateService.remove(review);
+        reviewRepository.delete(review);
     }
 }
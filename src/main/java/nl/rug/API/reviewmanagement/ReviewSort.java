@@ -0,0 +1,35 @@
+package nl.rug.API.reviewmanagement;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Orders of the reviews of a media item, both descending with the review id as tie breaker.
+ */
+public enum ReviewSort {
+    /**
+     * Most recently added first.
+     */
+    DATE,
+    /**
+     * Highest rating first.
+     */
+    RATING;
+
+    /**
+     * Parses the sort request parameter.
+     *
+     * @param value date or rating, date if null
+     * @return the order
+     * @throws ResponseStatusException with code 400 for other values
+     */
+    public static ReviewSort fromParameter(String value) {
+        if (value == null || value.equalsIgnoreCase("date")) {
+            return DATE;
+        }
+        if (value.equalsIgnoreCase("rating")) {
+            return RATING;
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sort specified. Use 'date' or 'rating'");
+    }
+}
@@ -0,0 +1,20 @@
+package nl.rug.API.reviewmanagement;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Streaming queries of {@link ReviewRepository}, see {@link ReviewStreamRepositoryImpl}.
+ */
+public interface ReviewStreamRepository {
+
+    /**
+     * Streams the summaries of the reviews matching a specification through a database cursor, most recently added first.
+     * The stream has to be consumed and closed inside a transaction.
+     *
+     * @param spec the filters, may be null
+     * @return Stream of the summaries of the matching reviews
+     */
+    Stream<ReviewSummary> streamSummaries(Specification<Review> spec);
+}
@@ -0,0 +1,38 @@
+package nl.rug.API.reviewmanagement;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import nl.rug.API.common.Summaries;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the streaming queries: the fluent specification queries of Spring Data can not set
+ * a fetch size, without it the driver reads the whole result into memory.
+ */
+@RequiredArgsConstructor
+class ReviewStreamRepositoryImpl implements ReviewStreamRepository {
+    private static final int FETCH_SIZE = 1000;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Stream<ReviewSummary> streamSummaries(Specification<Review> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReviewSummary> query = cb.createQuery(ReviewSummary.class);
+        Root<Review> root = query.from(Review.class);
+        query.select(Summaries.select(root, cb, ReviewSummary.class));
+        if (spec != null) {
+            query.where(spec.toPredicate(root, query, cb));
+        }
+        query.orderBy(cb.desc(root.get("addedOn")), cb.desc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream();
+    }
+}
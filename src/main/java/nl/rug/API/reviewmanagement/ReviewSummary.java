@@ -0,0 +1,30 @@
+package nl.rug.API.reviewmanagement;
+
+import java.sql.Timestamp;
+
+/**
+ * Review as returned by the list endpoints: everything except the full text and the description,
+ * which are only loaded by GET /reviews/{id}.
+ *
+ * @param id           id of the review
+ * @param reviewType   type of the reviewed media
+ * @param title        title of the review
+ * @param author       author of the review
+ * @param affiliation  affiliation of the author
+ * @param reviewRating rating given in the review
+ * @param mediaId      id of the reviewed media
+ * @param mediaTitle   title of the reviewed media
+ * @param addedOn      timestamp of the addition to the database
+ * @param updatedOn    timestamp of the last update
+ */
+public record ReviewSummary(int id,
+                            ReviewType reviewType,
+                            String title,
+                            String author,
+                            String affiliation,
+                            Integer reviewRating,
+                            Integer mediaId,
+                            String mediaTitle,
+                            Timestamp addedOn,
+                            Timestamp updatedOn) {
+}
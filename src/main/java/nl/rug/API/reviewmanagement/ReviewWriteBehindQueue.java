@@ -0,0 +1,281 @@
+package nl.rug.API.reviewmanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind mode of POST /reviews (reviews.write-behind.enabled).
+ * Accepted reviews are put on a bounded in-memory queue and a single flusher thread stores them in batches,
+ * when a batch is full or the flush interval has passed. A full queue rejects new reviews, the controller
+ * answers those with 429.
+ * With reviews.write-behind.journal.enabled the accepted reviews are first appended to a local log
+ * (see {@link ReviewJournal}), reviews that were acknowledged but not stored are replayed on the next start.
+ * The replay is at least once: a crash between the commit of a batch and its checkpoint stores it twice.
+ * <p>
+ * Reviews that can not be stored because of the database (e.g. during an outage) are retried with an increasing
+ * delay, before newer reviews, and the journal checkpoint never passes them; meanwhile the queue fills up and new
+ * reviews are rejected. Only reviews the database refuses as invalid are dropped.
+ * Replayed reviews go through the same path, so the application also starts while the database is down.
+ */
+@Slf4j
+@Component
+public class ReviewWriteBehindQueue {
+    private static final Duration INITIAL_RETRY_DELAY = Duration.ofMillis(100);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final ReviewBatchWriter reviewBatchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final BlockingQueue<Pending> queue;
+    private final boolean journalEnabled;
+    private final Path journalPath;
+    private final boolean journalFsync;
+    private final DataSize journalSegmentSize;
+    private final Object appendLock = new Object();
+    // Replayed journal entries, stored before the queue; only taken by the flusher
+    private final Queue<Pending> replayed = new ConcurrentLinkedQueue<>();
+    private ReviewJournal journal;
+    private Thread flusher;
+    private volatile boolean running;
+
+    /**
+     * A queued review and the end of its journal entry (0 without journal).
+     */
+    private record Pending(Review review, long journalOffset) {
+    }
+
+    public ReviewWriteBehindQueue(ReviewBatchWriter reviewBatchWriter,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  @Value("${reviews.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${reviews.write-behind.queue-capacity:10000}") int capacity,
+                                  @Value("${reviews.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${reviews.write-behind.flush-interval:200ms}") Duration flushInterval,
+                                  @Value("${reviews.write-behind.journal.enabled:false}") boolean journalEnabled,
+                                  @Value("${reviews.write-behind.journal.path:data/review-journal.ndjson}") Path journalPath,
+                                  @Value("${reviews.write-behind.journal.fsync:true}") boolean journalFsync,
+                                  @Value("${reviews.write-behind.journal.segment-size:16MB}") DataSize journalSegmentSize) {
+        this.reviewBatchWriter = reviewBatchWriter;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.journalEnabled = journalEnabled;
+        this.journalPath = journalPath;
+        this.journalFsync = journalFsync;
+        this.journalSegmentSize = journalSegmentSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opens the journal and starts the flusher, which first stores the reviews that are replayed from the journal.
+     */
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (journalEnabled) {
+            journal = new ReviewJournal(journalPath, objectMapper, journalFsync, journalSegmentSize.toBytes());
+            List<ReviewJournal.Entry> pending = journal.pending();
+            if (!pending.isEmpty()) {
+                log.info("Replaying {} reviews from {}", pending.size(), journalPath);
+                pending.forEach(entry -> replayed.add(new Pending(entry.review(), entry.end())));
+            }
+        }
+        running = true;
+        flusher = new Thread(this::run, "review-write-behind");
+        flusher.start();
+    }
+
+    /**
+     * Accepts a validated review.
+     *
+     * @param review the review to store
+     * @return false if the queue is full
+     */
+    public boolean offer(Review review) {
+        try {
+            byte[] line = journal == null ? null : journal.encode(review);
+            long offset = 0;
+            synchronized (appendLock) {
+                if (queue.remainingCapacity() == 0) {
+                    return false;
+                }
+                if (journal != null) {
+                    offset = journal.append(line);
+                }
+                // Only this method adds to the queue and it holds the lock, so there is still room
+                queue.add(new Pending(review, offset));
+            }
+            if (journal != null) {
+                // Outside the lock, so concurrent offers share one force (group commit)
+                journal.sync(offset);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the review journal", e);
+        }
+    }
+
+    /**
+     * @return the number of accepted reviews that are waiting to be stored (not counting a batch being stored)
+     */
+    public int size() {
+        return queue.size() + replayed.size();
+    }
+
+    /**
+     * Stops the flusher after it stored the queued reviews.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException, IOException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        Duration retryDelay = Duration.ZERO;
+        while (running || !batch.isEmpty() || !replayed.isEmpty() || !queue.isEmpty()) {
+            // Reviews that could not be stored yet stay at the front of the batch, the order of the journal is kept
+            while (batch.size() < batchSize && !replayed.isEmpty()) {
+                batch.add(replayed.poll());
+            }
+            if (batch.isEmpty()) {
+                try {
+                    collect(batch);
+                } catch (InterruptedException e) {
+                    // Stopping: store what is left without waiting
+                    queue.drainTo(batch, batchSize);
+                }
+            } else {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (batch.isEmpty() || flush(batch)) {
+                retryDelay = Duration.ZERO;
+                continue;
+            }
+            if (!running) {
+                log.error("Stopping with {} reviews that could not be stored, {}", batch.size() + replayed.size() + queue.size(),
+                        journal != null ? "they are replayed from the journal on the next start" : "they are lost");
+                return;
+            }
+            retryDelay = retryDelay.isZero() ? INITIAL_RETRY_DELAY : min(retryDelay.multipliedBy(2), MAX_RETRY_DELAY);
+            log.warn("{} reviews could not be stored, retrying in {} ms", batch.size(), retryDelay.toMillis());
+            try {
+                Thread.sleep(retryDelay.toMillis());
+            } catch (InterruptedException e) {
+                // Stopping: one more attempt
+            }
+        }
+    }
+
+    /**
+     * Waits for the first review, then collects reviews until the batch is full or the flush interval passed.
+     */
+    private void collect(List<Pending> batch) throws InterruptedException {
+        Pending first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                long remaining = deadline - System.nanoTime();
+                Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+            }
+        }
+    }
+
+    /**
+     * Stores a batch and checkpoints the journal after the reviews that are done.
+     *
+     * @param batch the reviews in journal order, the stored and dropped ones are removed
+     * @return true if the whole batch is done, false if the remaining reviews have to be retried
+     */
+    private boolean flush(List<Pending> batch) {
+        int done = store(batch);
+        if (done > 0 && journal != null) {
+            try {
+                journal.checkpoint(batch.get(done - 1).journalOffset());
+            } catch (IOException e) {
+                log.error("Could not write the review journal checkpoint", e);
+            }
+        }
+        batch.subList(0, done).clear();
+        return batch.isEmpty();
+    }
+
+    /**
+     * Stores the reviews as one batch, or one by one if the batch fails.
+     *
+     * @return the number of reviews at the start of the batch that are stored or dropped
+     */
+    private int store(List<Pending> batch) {
+        List<Review> reviews = batch.stream().map(Pending::review).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> reviewBatchWriter.insert(reviews));
+            return reviews.size();
+        } catch (RuntimeException e) {
+            // One invalid review fails the whole batch, store the others one by one
+            log.warn("Batch of {} reviews failed, retrying them one by one", reviews.size(), e);
+        }
+        for (int i = 0; i < reviews.size(); i++) {
+            Review review = reviews.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> reviewBatchWriter.insert(List.of(review)));
+            } catch (DataIntegrityViolationException invalid) {
+                log.error("Dropping review of {} {}: {}", review.getReviewType(), review.getMediaId(), invalid.getMessage());
+            } catch (RuntimeException e) {
+                // Most likely the database is not available, this review and the ones after it are retried later
+                log.warn("Could not store review of {} {}: {}", review.getReviewType(), review.getMediaId(), e.getMessage());
+                return i;
+            }
+        }
+        return reviews.size();
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
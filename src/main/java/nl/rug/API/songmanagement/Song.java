@@ -4,17 +4,21 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import nl.rug.API.reviewmanagement.Review;
+import nl.rug.API.common.CompressedTextConverter;
 
 import java.sql.Timestamp;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Song object.
  */
 @Entity
-@Table(name = "song")
+@Table(name = "song", indexes = {
+        @Index(name = "ix_song_added_on", columnList = "addedOn"),
+        @Index(name = "ix_song_artist_added_on", columnList = "artist, addedOn"),
+        @Index(name = "ix_song_name_added_on", columnList = "name, addedOn"),
+        @Index(name = "ix_song_genre_added_on", columnList = "genre, addedOn"),
+        @Index(name = "ix_song_released_on", columnList = "releasedOn")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -38,8 +42,9 @@ public class Song {
     @Column(nullable = false)
     private String genre;
 
-    @Column(nullable = false)
-    private String description;
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, columnDefinition = "longblob")
+    private String description; // Stored compressed, not selected by the list endpoints (see SongSummary)
 
     @Column(nullable = false, updatable = false)
     private Timestamp addedOn;
@@ -47,8 +52,8 @@ public class Song {
     @Column(nullable = false)
     private Timestamp updatedOn;
 
-    @OneToMany
-    private List<Review> reviews = new ArrayList<>();
+    @Version
+    private long version; // Incremented by every update, used for optimistic locking (If-Match)
 
     /**
      * Constructor.
@@ -0,0 +1,10 @@
+package nl.rug.API.songmanagement;
+
+/**
+ * Published by {@link SongService} when a song is updated or deleted.
+ * Listeners use it to invalidate cached values that contain the song, such as cached albums.
+ *
+ * @param songId the id of the changed song
+ */
+public record SongChangedEvent(int songId) {
+}
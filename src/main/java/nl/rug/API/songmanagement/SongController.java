@@ -1,7 +1,15 @@
 package nl.rug.API.songmanagement;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import nl.rug.API.common.Expand;
+import nl.rug.API.common.Keyset;
+import nl.rug.API.common.Versions;
+import nl.rug.API.reviewmanagement.ReviewSummary;
+import nl.rug.API.reviewmanagement.ReviewSort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,24 +26,30 @@ public class SongController {
     /**
      * Retrieves a list of all songs or a filtered list based on optional parameters.
      *
-     * @param limit       Optional parameter to limit the number of songs returned.
+     * @param limit       Optional parameter to limit the number of songs returned (page size, default 50).
      * @param artist      Optional parameter to filter songs by artist.
      * @param albumId     Optional parameter to filter songs by album ID.
      * @param name        Optional parameter to filter songs by name.
      * @param releaseYear Optional parameter to filter songs by release year.
      * @param genre       Optional parameter to filter songs by genre.
-     * @return A list of songs that match the given criteria.
+     * @param cursor      Optional token of the previous page, as returned in the X-Next-Cursor header.
+     * @param expand      Optional "reviews" to include the summaries of the reviews of every song.
+     * @return A list of songs that match the given criteria, without their descriptions.
      */
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public List<Song> getAllSongs(
+    public ResponseEntity<List<SongView>> getAllSongs(
             @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "artist", required = false) String artist,
             @RequestParam(value = "albumId", required = false) Integer albumId,
             @RequestParam(value = "name", required = false) String name,
-            @RequestParam(value = "year", required = false) String releaseYear,
-            @RequestParam(value = "genre", required = false) String genre) {
-        return songService.getAllSongs();
+            @RequestParam(value = "year", required = false) Integer releaseYear,
+            @RequestParam(value = "genre", required = false) String genre,
+            @RequestParam(value = "expand", required = false) String expand) {
+        // All provided filters are combined into one query
+        SongFilter filter = new SongFilter(artist, albumId, name, releaseYear, genre);
+        boolean withReviews = Expand.parse(expand, "reviews").contains("reviews");
+        return songService.getSongs(filter, withReviews, cursor, Keyset.limit(limit)).toResponse();
     }
 
     /**
@@ -59,7 +73,7 @@ public class SongController {
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Song addSong(@RequestBody SongDTO songDTO) {
+    public Song addSong(@RequestBody @Valid SongDTO songDTO) {
         Song song = new Song(
                 songDTO.name(),
                 songDTO.artist(),
@@ -76,12 +90,14 @@ public class SongController {
      *
      * @param id      the ID of the song to update.
      * @param songDTO the song data transfer object containing the new details.
+     * @param ifMatch optional version of the song that is expected to be updated.
      * @return The updated song.
      * @throws  if no song with the provided ID is found.
      */
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public Song updateSong(@PathVariable int id, @RequestBody SongDTO songDTO) {
+    public Song updateSong(@PathVariable int id, @RequestBody @Valid SongDTO songDTO,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Song song = new Song(
                 songDTO.name(),
                 songDTO.artist(),
@@ -90,7 +106,7 @@ public class SongController {
                 songDTO.genre(),
                 songDTO.description());
 
-        return songService.updateSong(id, song);
+        return songService.updateSong(id, song, Versions.fromIfMatch(ifMatch));
     }
 
     /**
@@ -106,16 +122,21 @@ public class SongController {
     }
 
     /**
-     * Retrieves all reviews associated with a song by its ID.
+     * Retrieves the reviews of a song by its ID, one page at a time.
      *
-     * @param id the ID of the song whose reviews are to be retrieved.
-     * @return A list of reviews for the song.
+     * @param id     the ID of the song whose reviews are to be retrieved.
+     * @param sort   Optional order, date (newest first, default) or rating (best first).
+     * @param limit  Optional page size, 50 if not given.
+     * @param cursor Optional token of the previous page, as returned in the X-Next-Cursor header.
+     * @return A page of reviews for the song.
      * @throws if no song with the provided ID is found.
      */
     @GetMapping("/{id}/reviews")
-    @ResponseStatus(HttpStatus.OK)
-    public Object getSongReviews(@PathVariable int id) {
-        return songService.getSongReviews(id);
+    public ResponseEntity<List<ReviewSummary>> getSongReviews(@PathVariable int id,
+                                                       @RequestParam(value = "sort", required = false) String sort,
+                                                       @RequestParam(value = "limit", required = false) Integer limit,
+                                                       @RequestParam(value = "cursor", required = false) String cursor) {
+        return songService.getSongReviews(id, ReviewSort.fromParameter(sort), cursor, Keyset.limit(limit)).toResponse();
     }
 
     /**
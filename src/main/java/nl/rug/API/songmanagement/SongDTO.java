@@ -1,5 +1,7 @@
 package nl.rug.API.songmanagement;
 
+import jakarta.validation.constraints.NotNull;
+
 import java.sql.Timestamp;
 
 /**
@@ -11,10 +13,10 @@ import java.sql.Timestamp;
  * @param genre - the genre of the song
  * @param description - the description of the song
  */
-public record SongDTO(String name,
-                      String artist,
-                      Timestamp releasedOn,
+public record SongDTO(@NotNull String name,
+                      @NotNull String artist,
+                      @NotNull Timestamp releasedOn,
                       int duration,
-                      String genre,
-                      String description) {
+                      @NotNull String genre,
+                      @NotNull String description) {
 }
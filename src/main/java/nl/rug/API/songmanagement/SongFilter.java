@@ -0,0 +1,63 @@
+package nl.rug.API.songmanagement;
+
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import nl.rug.API.albummanagement.Album;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Optional filters of the song list. All given filters have to match (intersection).
+ *
+ * @param artist  artist of the song, may be null
+ * @param albumId id of an album containing the song, may be null
+ * @param name    name of the song, may be null
+ * @param year    year in which the song was released, may be null
+ * @param genre   genre of the song, may be null
+ */
+public record SongFilter(String artist,
+                         Integer albumId,
+                         String name,
+                         Integer year,
+                         String genre) {
+
+    /**
+     * Combines the given filters into a single where clause.
+     * The year is a range on releasedOn and the album a subquery on the album_songs join table,
+     * so both can use an index.
+     *
+     * @return Specification matching the songs that satisfy all filters
+     */
+    public Specification<Song> toSpecification() {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (artist != null) {
+                predicates.add(cb.equal(root.get("artist"), artist));
+            }
+            if (albumId != null) {
+                Subquery<Integer> albumSongs = query.subquery(Integer.class);
+                Root<Album> album = albumSongs.from(Album.class);
+                Join<Album, Song> song = album.join("songs");
+                albumSongs.select(song.get("id")).where(cb.equal(album.get("id"), albumId));
+                predicates.add(root.get("id").in(albumSongs));
+            }
+            if (name != null) {
+                predicates.add(cb.equal(root.get("name"), name));
+            }
+            if (year != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("releasedOn"), Timestamp.valueOf(LocalDate.of(year, 1, 1).atStartOfDay())));
+                predicates.add(cb.lessThan(root.get("releasedOn"), Timestamp.valueOf(LocalDate.of(year + 1, 1, 1).atStartOfDay())));
+            }
+            if (genre != null) {
+                predicates.add(cb.equal(root.get("genre"), genre));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
@@ -1,9 +1,30 @@
 package nl.rug.API.songmanagement;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.sql.Timestamp;
 
 /**
- * Repository expanding standard Crud operations for the Song entity.
+ * Repository expanding standard Crud, paging and specification operations for the Song entity.
  **/
-public interface SongRepository extends CrudRepository<Song, Integer> {
+public interface SongRepository extends JpaRepository<Song, Integer>, JpaSpecificationExecutor<Song> {
+
+    /**
+     * Updates a song in a single statement, without reading it first.
+     *
+     * @param id      the id of the song
+     * @param song    the new values of the song
+     * @param version the expected version of the song, any version if null
+     * @param now     the update timestamp
+     * @return the number of updated songs, 0 if the song does not exist or has another version
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Song s set s.name = :#{#song.name}, s.artist = :#{#song.artist}, s.releasedOn = :#{#song.releasedOn}, "
+            + "s.duration = :#{#song.duration}, s.genre = :#{#song.genre}, s.description = :#{#song.description}, "
+            + "s.updatedOn = :now, s.version = s.version + 1 "
+            + "where s.id = :id and (:version is null or s.version = :version)")
+    int update(int id, Song song, Long version, Timestamp now);
 }
@@ -1,14 +1,26 @@
 package nl.rug.API.songmanagement;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
-import nl.rug.API.reviewmanagement.Review;
+import nl.rug.API.common.CacheConfig;
+import nl.rug.API.common.CursorPage;
+import nl.rug.API.common.Keyset;
+import nl.rug.API.reviewmanagement.RatingAggregateService;
+import nl.rug.API.reviewmanagement.ReviewSummary;
+import nl.rug.API.reviewmanagement.ReviewService;
+import nl.rug.API.reviewmanagement.ReviewSort;
+import nl.rug.API.reviewmanagement.ReviewType;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.util.List;
-import java.util.stream.StreamSupport;
+import java.util.Map;
 
 /**
  * Provides service methods for managing songs.
@@ -17,26 +29,51 @@ import java.util.stream.StreamSupport;
 @RequiredArgsConstructor
 public class SongService {
     private final SongRepository songRepository;
+    private final RatingAggregateService ratingAggregateService;
+    private final ReviewService reviewService;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
     /**
-     * Retrieves a song by its ID.
+     * Retrieves a song by its ID, reading through the song cache.
      *
      * @param id the ID of the song
      * @return the found song
      * @throws EntityNotFoundException if no song with the given ID is found
      */
     public Song getSongById(int id) {
-        return songRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Song with id " + id + " not found"));
+        Cache cache = cacheManager.getCache(CacheConfig.SONGS);
+        Song song = cache.get(id, Song.class);
+        if (song == null) {
+            song = songRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Error: Song with id " + id + " not found"));
+            cache.put(id, song);
+        }
+        return song;
     }
 
     /**
-     * Retrieves all songs in the database.
+     * Retrieves one page of the songs matching the filters, most recently added first.
+     * The filters, ordering and limit are executed as a single query, the reviews of all songs of the page
+     * are read with one more query if they are expanded.
      *
-     * @return a list of all songs
+     * @param filter      the filters to apply, a filter without values for all songs
+     * @param withReviews whether the review summaries of the songs are included
+     * @param cursor      the token of the previous page, null for the first page
+     * @param limit       the page size
+     * @return the page of song summaries (without description)
      */
-    public List<Song> getAllSongs() {
-        return StreamSupport.stream(songRepository.findAll().spliterator(), false).toList();
+    @Transactional(readOnly = true)
+    public CursorPage<SongView> getSongs(SongFilter filter, boolean withReviews, String cursor, int limit) {
+        CursorPage<SongSummary> page = Keyset.page(entityManager, Song.class, SongSummary.class, filter.toSpecification(), cursor, limit,
+                song -> Keyset.cursorOf(song.addedOn(), song.id()));
+        if (!withReviews) {
+            return page.map(song -> new SongView(song, null));
+        }
+        Map<Integer, List<ReviewSummary>> reviews = reviewService.getMediaReviewSummaries(ReviewType.SONG,
+                page.items().stream().map(SongSummary::id).toList());
+        return page.map(song -> new SongView(song, reviews.getOrDefault(song.id(), List.of())));
     }
 
     /**
@@ -62,17 +99,29 @@ public class SongService {
      */
     @Transactional
     public Song updateSong(int id, Song updatedSong) {
-        Song song = songRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Song with id " + id + " not found"));
-
-        song.setName(updatedSong.getName());
-        song.setArtist(updatedSong.getArtist());
-        song.setReleasedOn(updatedSong.getReleasedOn());
-        song.setDuration(updatedSong.getDuration());
-        song.setGenre(updatedSong.getGenre());
-        song.setDescription(updatedSong.getDescription());
+        return updateSong(id, updatedSong, null);
+    }
 
-        return songRepository.save(song);
+    /**
+     * Updates an existing song with one UPDATE statement and reads the new row.
+     *
+     * @param id the ID of the song to update
+     * @param updatedSong contains the new song details
+     * @param version the expected version of the song (If-Match), any version if null
+     * @return the updated song
+     * @throws EntityNotFoundException if no song with the given ID is found
+     * @throws OptimisticLockException if the song has another version
+     */
+    @Transactional
+    public Song updateSong(int id, Song updatedSong, Long version) {
+        if (songRepository.update(id, updatedSong, version, new Timestamp(System.currentTimeMillis())) == 0) {
+            if (!songRepository.existsById(id)) {
+                throw new EntityNotFoundException("Error: Song with id " + id + " not found");
+            }
+            throw new OptimisticLockException("Error: Song with id " + id + " was modified, version " + version + " is outdated");
+        }
+        evict(id);
+        return songRepository.findById(id).orElseThrow();
     }
 
     /**
@@ -81,41 +130,56 @@ public class SongService {
      * @param id the ID of the song to delete
      * @throws EntityNotFoundException if no song with the given ID is found
      */
+    @Transactional
     public void deleteSong(int id) {
         if (songRepository.existsById(id)) {
+            reviewService.deleteMediaReviews(ReviewType.SONG, id);
             songRepository.deleteById(id);
+            evict(id);
         } else {
             throw new EntityNotFoundException("Error: Song with id " + id + " not found");
         }
     }
 
     /**
-     * Retrieves reviews for a specific song.
+     * Retrieves one page of the reviews of a specific song.
      *
-     * @param id the ID of the song
-     * @return a list of reviews for the song
+     * @param id     the ID of the song
+     * @param sort   newest or best rated first
+     * @param cursor the token of the previous page, null for the first page
+     * @param limit  the page size
+     * @return the page of reviews for the song
      * @throws EntityNotFoundException if no song with the given ID is found
      */
-    public List<Review> getSongReviews(int id) {
-        Song song = songRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Song with id " + id + " not found"));
-        return song.getReviews();
+    public CursorPage<ReviewSummary> getSongReviews(int id, ReviewSort sort, String cursor, int limit) {
+        if (!songRepository.existsById(id)) {
+            throw new EntityNotFoundException("Error: Song with id " + id + " not found");
+        }
+        return reviewService.getMediaReviews(ReviewType.SONG, id, sort, cursor, limit);
     }
 
     /**
-     * Calculates the average rating of a song based on its reviews.
+     * Reads the average rating of a song from the maintained rating totals.
      *
      * @param id the ID of the song
      * @return the average rating of the song
      * @throws EntityNotFoundException if no song with the given ID is found
      */
     public double getSongRating(int id) {
-        Song song = songRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Error: Song with id " + id + " not found"));
+        if (!songRepository.existsById(id)) {
+            throw new EntityNotFoundException("Error: Song with id " + id + " not found");
+        }
+
+        return ratingAggregateService.getAverageRating(ReviewType.SONG, id);
+    }
 
-        return song.getReviews().stream()
-                .mapToInt(Review::getReviewRating)
-                .average()
-                .orElse(0.0);
+    /**
+     * Removes a song from the song cache and notifies the holders of other cached copies.
+     *
+     * @param id the ID of the changed or deleted song
+     */
+    private void evict(int id) {
+        cacheManager.getCache(CacheConfig.SONGS).evict(id);
+        eventPublisher.publishEvent(new SongChangedEvent(id));
     }
 }
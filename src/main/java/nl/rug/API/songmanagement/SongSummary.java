@@ -0,0 +1,28 @@
+package nl.rug.API.songmanagement;
+
+import java.sql.Timestamp;
+
+/**
+ * Song as returned by the list endpoints: everything except the description,
+ * which is only loaded by GET /songs/{id}.
+ *
+ * @param id         id of the song
+ * @param name       name and or title of the song
+ * @param artist     artist/artists of the song
+ * @param releasedOn release date of the song
+ * @param duration   duration of the song
+ * @param genre      genre of the song
+ * @param addedOn    timestamp of the addition to the database
+ * @param updatedOn  timestamp of the last update
+ * @param version    version of the song, for If-Match
+ */
+public record SongSummary(Integer id,
+                          String name,
+                          String artist,
+                          Timestamp releasedOn,
+                          int duration,
+                          String genre,
+                          Timestamp addedOn,
+                          Timestamp updatedOn,
+                          long version) {
+}
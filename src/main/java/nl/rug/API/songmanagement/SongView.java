@@ -0,0 +1,17 @@
+package nl.rug.API.songmanagement;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import nl.rug.API.reviewmanagement.ReviewSummary;
+
+import java.util.List;
+
+/**
+ * Listed song: the summary of the song and, with expand=reviews, the summaries of its reviews.
+ *
+ * @param song    the song
+ * @param reviews the reviews of the song (newest first), null (left out) if they were not expanded
+ */
+public record SongView(@JsonUnwrapped SongSummary song,
+                       @JsonInclude(JsonInclude.Include.NON_NULL) List<ReviewSummary> reviews) {
+}
@@ -0,0 +1,17 @@
+-- Running rating totals per book and song (see RatingAggregate), filled from the reviews that already exist.
+-- The table may already exist on databases that Hibernate updated (ddl-auto=update) before migrations were introduced,
+-- the backfill then replaces the totals found there.
+
+create table if not exists rating_aggregate (
+    media_id integer not null,
+    rating_count bigint not null,
+    rating_sum bigint not null,
+    review_type enum ('BOOK','SONG') not null,
+    primary key (media_id, review_type)
+);
+
+delete from rating_aggregate;
+
+insert into rating_aggregate (review_type, media_id, rating_sum, rating_count)
+select review_type, media_id, sum(review_rating), count(*) from review
+group by review_type, media_id;
@@ -0,0 +1,80 @@
+-- Schema as created by Hibernate (ddl-auto=update) before migrations were introduced.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate), so this script only runs on empty databases.
+-- Everything added since (the book_seq sequence, the rating totals, indexes, ...) is created by the later migrations.
+
+create table album (
+    id integer not null auto_increment,
+    release_date date not null,
+    added_on datetime(6) not null,
+    updated_on datetime(6) not null,
+    artist varchar(255) not null,
+    title varchar(255) not null,
+    primary key (id)
+);
+
+create table album_songs (
+    album_id integer not null,
+    songs_id integer not null
+);
+
+create table book (
+    id integer not null auto_increment,
+    published_year integer not null,
+    added_on datetime(6) not null,
+    updated_on datetime(6) not null,
+    author varchar(255) not null,
+    description varchar(255) not null,
+    genre varchar(255) not null,
+    isbn varchar(255) not null,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table book_reviews (
+    book_id integer not null,
+    reviews_id integer not null
+);
+
+create table review (
+    id integer not null auto_increment,
+    media_id integer not null,
+    review_rating integer not null,
+    added_on datetime(6) not null,
+    updated_on datetime(6) not null,
+    affiliation varchar(255) not null,
+    author varchar(255) not null,
+    media_title varchar(255) not null,
+    review_description varchar(255) not null,
+    review_full_text varchar(255) not null,
+    title varchar(255) not null,
+    review_type enum ('BOOK','SONG') not null,
+    primary key (id)
+);
+
+create table song (
+    duration integer not null,
+    id integer not null auto_increment,
+    added_on datetime(6) not null,
+    released_on datetime(6) not null,
+    updated_on datetime(6) not null,
+    artist varchar(255) not null,
+    description varchar(255) not null,
+    genre varchar(255) not null,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table song_reviews (
+    reviews_id integer not null,
+    song_id integer not null
+);
+
+alter table album_songs add constraint UKad6gms9d256tcj3ep8om9n1pr unique (songs_id);
+alter table book_reviews add constraint UKgjvotm8424fv5qpb1a8ud5ow2 unique (reviews_id);
+alter table song_reviews add constraint UKqis2i43cul2gkyw8cx456ny0h unique (reviews_id);
+alter table album_songs add constraint FKrkacen1hcenpf1yby2u0q5cr0 foreign key (songs_id) references song (id);
+alter table album_songs add constraint FK4p67gti7olml2nebymwwgx3uw foreign key (album_id) references album (id);
+alter table book_reviews add constraint FKm0pgkcg82icyet2jlwd1jqja4 foreign key (reviews_id) references review (id);
+alter table book_reviews add constraint FKql32utr9nxcui2rgpyiucbrb foreign key (book_id) references book (id);
+alter table song_reviews add constraint FKlhjo99ltv4dgmc5am8jxel3vf foreign key (reviews_id) references review (id);
+alter table song_reviews add constraint FKjo2l7s533lpbhawpjepjj64xd foreign key (song_id) references song (id);
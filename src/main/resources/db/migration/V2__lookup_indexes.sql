@@ -0,0 +1,12 @@
+-- Indexes for the lookup columns of books and albums (see the @Index declarations on Book and Album).
+-- Note: the unique isbn index fails if the table already contains duplicate isbns, remove those first.
+
+create unique index ux_book_isbn on book (isbn);
+create index ix_book_name_added_on on book (name, added_on);
+create index ix_book_author_added_on on book (author, added_on, id);
+create index ix_book_genre_added_on on book (genre, added_on, id);
+create index ix_book_added_on on book (added_on);
+
+create index ix_album_title on album (title);
+create index ix_album_artist on album (artist);
+create index ix_album_added_on on album (added_on);
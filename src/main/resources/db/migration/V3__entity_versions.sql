@@ -0,0 +1,5 @@
+-- Version columns for optimistic locking of books, songs and albums (see the @Version fields).
+
+alter table book add column version bigint not null default 0;
+alter table song add column version bigint not null default 0;
+alter table album add column version bigint not null default 0;
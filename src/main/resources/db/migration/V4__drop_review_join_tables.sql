@@ -0,0 +1,5 @@
+-- Reviews reference their book or song with review_type and media_id, the join tables of the
+-- former Book.reviews and Song.reviews collections only duplicated that link.
+
+drop table book_reviews;
+drop table song_reviews;
@@ -0,0 +1,4 @@
+-- Indexes for the reviews of a media item, newest first or best rated first (see the @Index declarations on Review).
+
+create index ix_review_media_added_on on review (review_type, media_id, added_on);
+create index ix_review_media_rating on review (review_type, media_id, review_rating);
@@ -0,0 +1,9 @@
+-- Indexes for the filters of the song list, newest first (see the @Index declarations on Song and Album.songs).
+
+create index ix_song_added_on on song (added_on);
+create index ix_song_artist_added_on on song (artist, added_on);
+create index ix_song_name_added_on on song (name, added_on);
+create index ix_song_genre_added_on on song (genre, added_on);
+create index ix_song_released_on on song (released_on);
+
+create index ix_album_songs_album on album_songs (album_id, songs_id);
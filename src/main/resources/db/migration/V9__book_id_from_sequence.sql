@@ -0,0 +1,4 @@
+-- Book ids are taken from book_seq (see V8 and the @SequenceGenerator on Book.id), so that Hibernate can batch
+-- the inserts of imports. The id column of databases created before that is still an auto_increment column.
+
+alter table book modify column id integer not null;
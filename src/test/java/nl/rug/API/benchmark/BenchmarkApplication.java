@@ -0,0 +1,170 @@
+package nl.rug.API.benchmark;
+
+import nl.rug.API.ApiApplication;
+import nl.rug.API.albummanagement.Album;
+import nl.rug.API.albummanagement.AlbumService;
+import nl.rug.API.bookmanagement.Book;
+import nl.rug.API.bookmanagement.BookImportWriter;
+import nl.rug.API.reviewmanagement.Review;
+import nl.rug.API.reviewmanagement.ReviewBatchWriter;
+import nl.rug.API.reviewmanagement.ReviewType;
+import nl.rug.API.songmanagement.Song;
+import nl.rug.API.songmanagement.SongRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Starts the application on an in-memory H2 database in MariaDB mode for the benchmarks and load tests,
+ * with the schema created by the real migrations, and seeds it through the services.
+ */
+final class BenchmarkApplication {
+    private static final int CHUNK = 1_000;
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application without web server on a new, empty database.
+     *
+     * @return the application context, to be closed by the benchmark
+     */
+    static ConfigurableApplicationContext start() {
+        return start(WebApplicationType.NONE);
+    }
+
+    /**
+     * Starts the application on a new, empty database.
+     *
+     * @param webApplicationType NONE, or SERVLET to also start the web server on a random port
+     * @return the application context, to be closed by the caller
+     */
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(ApiApplication.class)
+                .web(webApplicationType)
+                // Command line arguments, so they take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID()
+                                + ";MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.main.banner-mode=off",
+                        "--server.port=0",
+                        "--logging.level.root=WARN");
+    }
+
+    /**
+     * Picks an id with a skewed distribution: the first ids of the list are picked far more often than the last ones.
+     *
+     * @param random the source of randomness
+     * @param ids    the ids, most popular first
+     * @return one of the ids
+     */
+    static int skewed(Random random, List<Integer> ids) {
+        return ids.get((int) (Math.pow(random.nextDouble(), 3) * ids.size()));
+    }
+
+    /**
+     * Creates a book with a description of a few hundred characters.
+     *
+     * @param i the number of the book, used for the unique isbn
+     * @return the book, not persisted
+     */
+    static Book book(int i) {
+        return new Book("book-" + i, "author-" + i % 1_000, 1900 + i % 120, "isbn-" + i, "genre-" + i % 20,
+                ("Description of book " + i + ", a story about benchmarks. ").repeat(8));
+    }
+
+    /**
+     * Inserts books in chunks with the import writer.
+     *
+     * @param context the application
+     * @param count   the number of books
+     */
+    static void seedBooks(ConfigurableApplicationContext context, int count) {
+        BookImportWriter writer = context.getBean(BookImportWriter.class);
+        List<Book> chunk = new ArrayList<>(CHUNK);
+        for (int i = 1; i <= count; i++) {
+            chunk.add(book(i));
+            if (chunk.size() == CHUNK || i == count) {
+                writer.writeChunk(chunk);
+                chunk.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts songs and distributes them evenly over albums.
+     *
+     * @param context the application
+     * @param songs   the number of songs
+     * @param albums  the number of albums
+     */
+    static void seedAlbums(ConfigurableApplicationContext context, int songs, int albums) {
+        SongRepository songRepository = context.getBean(SongRepository.class);
+        AlbumService albumService = context.getBean(AlbumService.class);
+        Timestamp releasedOn = Timestamp.valueOf(LocalDate.of(2020, 1, 1).atStartOfDay());
+        for (int a = 0; a < albums; a++) {
+            int songsOfAlbum = songs / albums + (a < songs % albums ? 1 : 0);
+            List<Song> albumSongs = new ArrayList<>(songsOfAlbum);
+            for (int s = 0; s < songsOfAlbum; s++) {
+                albumSongs.add(new Song("song-" + a + "-" + s, "artist-" + a % 100, releasedOn, 180 + s, "genre-" + s % 10,
+                        "Description of song " + s + " of album " + a));
+            }
+            int[] songIds = songRepository.saveAll(albumSongs).stream().mapToInt(Song::getId).toArray();
+            Album album = albumService.addAlbum(new Album("album-" + a, "artist-" + a % 100, LocalDate.of(2020, 1, 1)));
+            if (songIds.length > 0) {
+                albumService.addSongsToAlbum(album.getId(), songIds);
+            }
+        }
+    }
+
+    /**
+     * Inserts reviews with a skewed distribution: a few media items get most of the reviews.
+     *
+     * @param context    the application
+     * @param reviewType the type of the reviewed media
+     * @param mediaIds   the ids of the media items, most reviewed first
+     * @param count      the number of reviews
+     */
+    static void seedReviews(ConfigurableApplicationContext context, ReviewType reviewType, List<Integer> mediaIds, int count) {
+        ReviewBatchWriter writer = context.getBean(ReviewBatchWriter.class);
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        Random random = new Random(42);
+        List<Review> chunk = new ArrayList<>(CHUNK);
+        for (int i = 1; i <= count; i++) {
+            int mediaId = skewed(random, mediaIds);
+            chunk.add(review(i, reviewType, mediaId, 1 + random.nextInt(5)));
+            if (chunk.size() == CHUNK || i == count) {
+                List<Review> batch = List.copyOf(chunk);
+                transactionTemplate.executeWithoutResult(status -> writer.insert(batch));
+                chunk.clear();
+            }
+        }
+    }
+
+    /**
+     * Creates a review with a full text of about a thousand characters.
+     *
+     * @param i          the number of the review
+     * @param reviewType the type of the reviewed media
+     * @param mediaId    the id of the reviewed media
+     * @param rating     the rating
+     * @return the review, not persisted
+     */
+    static Review review(int i, ReviewType reviewType, int mediaId, int rating) {
+        return new Review(reviewType, "review-" + i, "reviewer-" + i % 500,
+                ("Full text of review " + i + ", with an opinion about the media item. ").repeat(16),
+                "Short description of review " + i, "affiliation-" + i % 50, rating, mediaId, "media-" + mediaId);
+    }
+}
@@ -0,0 +1,92 @@
+package nl.rug.API.benchmark;
+
+import com.opencsv.exceptions.CsvValidationException;
+import nl.rug.API.bookmanagement.BookService;
+import nl.rug.API.bookmanagement.ImportProgress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of importing a CSV or JSON file (POST /books/import) into an empty catalog.
+ * The files are written by the exports, every measured import starts from an empty book table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BookImportBenchmark {
+    private static final int CHUNK_SIZE = 1_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private JdbcTemplate jdbcTemplate;
+    private Path csv;
+    private Path json;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start();
+        bookService = context.getBean(BookService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        BenchmarkApplication.seedBooks(context, books);
+        csv = Files.createTempFile("books", ".csv");
+        json = Files.createTempFile("books", ".json");
+        try (OutputStream out = Files.newOutputStream(csv)) {
+            bookService.exportBooksCsv(out);
+        }
+        try (OutputStream out = Files.newOutputStream(json)) {
+            bookService.exportBooksJson(out);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void clear() {
+        jdbcTemplate.update("delete from book");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(json);
+    }
+
+    @Benchmark
+    public long importCsv() throws IOException, CsvValidationException {
+        return bookService.importBooksCsv(csv.toUri().toString(), CHUNK_SIZE, ImportProgress.NONE);
+    }
+
+    @Benchmark
+    public long importCsvParallel() throws IOException, CsvValidationException {
+        return bookService.importBooksCsvParallel(csv.toUri().toString(), CHUNK_SIZE, false, ImportProgress.NONE);
+    }
+
+    @Benchmark
+    public long importJson() throws IOException {
+        return bookService.importBooksJson(json.toUri().toString(), CHUNK_SIZE, ImportProgress.NONE);
+    }
+}
@@ -0,0 +1,97 @@
+package nl.rug.API.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Collects the latencies of a load test per endpoint and computes throughput and percentiles.
+ * All latencies are kept, so the percentiles are exact.
+ */
+final class LatencyRecorder {
+    static final String TOTAL = "total";
+
+    /**
+     * Results of one endpoint.
+     *
+     * @param endpoint   the method and path template, or "total"
+     * @param requests   number of answered requests
+     * @param errors     number of requests failing or answered with a 4xx/5xx status
+     * @param throughput requests per second
+     * @param p50Ms      median latency in milliseconds
+     * @param p99Ms      99th percentile latency in milliseconds
+     * @param p999Ms     99.9th percentile latency in milliseconds
+     * @param maxMs      highest latency in milliseconds
+     */
+    record EndpointResult(String endpoint,
+                          int requests,
+                          int errors,
+                          double throughput,
+                          double p50Ms,
+                          double p99Ms,
+                          double p999Ms,
+                          double maxMs) {
+    }
+
+    private static final class Latencies {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void add(long latencyNanos, boolean error) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latencyNanos;
+            if (error) {
+                errors++;
+            }
+        }
+
+        synchronized EndpointResult result(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new EndpointResult(endpoint, count, errors, count / seconds, percentile(sorted, 50),
+                    percentile(sorted, 99), percentile(sorted, 99.9), percentile(sorted, 100));
+        }
+    }
+
+    private final Map<String, Latencies> endpoints = new ConcurrentSkipListMap<>();
+    private final Latencies total = new Latencies();
+
+    /**
+     * Records one request.
+     *
+     * @param endpoint     the method and path template
+     * @param latencyNanos the time from (intended) sending until the response was received
+     * @param error        whether the request failed or was answered with an error status
+     */
+    void record(String endpoint, long latencyNanos, boolean error) {
+        endpoints.computeIfAbsent(endpoint, key -> new Latencies()).add(latencyNanos, error);
+        total.add(latencyNanos, error);
+    }
+
+    /**
+     * Computes the results of every endpoint, followed by the total.
+     *
+     * @param seconds the duration of the measurement
+     * @return the results
+     */
+    List<EndpointResult> results(double seconds) {
+        List<EndpointResult> results = new ArrayList<>();
+        endpoints.forEach((endpoint, latencies) -> results.add(latencies.result(endpoint, seconds)));
+        results.add(total.result(TOTAL, seconds));
+        return results;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        // Nearest rank
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+    }
+}
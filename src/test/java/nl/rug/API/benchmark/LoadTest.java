@@ -0,0 +1,159 @@
+package nl.rug.API.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.rug.API.reviewmanagement.RatingAggregateService;
+import nl.rug.API.reviewmanagement.ReviewType;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of the REST endpoints: starts the application on H2 in MariaDB mode, seeds a synthetic
+ * catalog, sends a mix of reads and writes over HTTP and reports throughput and p50/p99/p999 latency per endpoint.
+ * Run with {@code mvn test -Ploadtest}, the settings are described in {@link LoadTestConfig}.
+ * The results are printed and written as JSON to the file of the loadtest.result property.
+ */
+public final class LoadTest {
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        Path resultFile = Path.of(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(WebApplicationType.SERVLET)) {
+            LoadTestWorkload workload = seed(context, config, objectMapper);
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+            System.out.printf("Running %s model for %ds after %ds warmup%n", config.model(), config.durationSeconds(), config.warmupSeconds());
+            LatencyRecorder recorder = switch (config.model()) {
+                case CLOSED -> runClosed(client, workload, config);
+                case OPEN -> runOpen(client, workload, config);
+            };
+            List<LatencyRecorder.EndpointResult> results = recorder.results(config.durationSeconds());
+
+            print(results);
+            Files.createDirectories(resultFile.toAbsolutePath().getParent());
+            objectMapper.writerWithDefaultPrettyPrinter()
+                    .writeValue(resultFile.toFile(), Map.of("config", config, "endpoints", results));
+            System.out.println("Results written to " + resultFile.toAbsolutePath());
+        }
+    }
+
+    private static LoadTestWorkload seed(ConfigurableApplicationContext context, LoadTestConfig config, ObjectMapper objectMapper) {
+        long start = System.nanoTime();
+        BenchmarkApplication.seedBooks(context, config.books());
+        BenchmarkApplication.seedAlbums(context, config.songs(), config.albums());
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Integer> bookIds = jdbcTemplate.queryForList("select id from book order by id", Integer.class);
+        List<Integer> songIds = jdbcTemplate.queryForList("select id from song order by id", Integer.class);
+        List<Integer> albumIds = jdbcTemplate.queryForList("select id from album order by id", Integer.class);
+        BenchmarkApplication.seedReviews(context, ReviewType.BOOK, bookIds, config.reviews() / 2);
+        BenchmarkApplication.seedReviews(context, ReviewType.SONG, songIds, config.reviews() - config.reviews() / 2);
+        context.getBean(RatingAggregateService.class).rebuild();
+        System.out.printf("Seeded %d books, %d songs, %d albums and %d reviews in %ds%n", bookIds.size(), songIds.size(),
+                albumIds.size(), config.reviews(), TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return new LoadTestWorkload(URI.create("http://localhost:" + port), objectMapper, bookIds, songIds, albumIds,
+                config.writePercent());
+    }
+
+    /**
+     * Closed model: every user sends its next request as soon as the previous one is answered,
+     * so the offered load drops when the application slows down.
+     */
+    private static LatencyRecorder runClosed(HttpClient client, LoadTestWorkload workload, LoadTestConfig config) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        ExecutorService users = Executors.newFixedThreadPool(config.users());
+        for (int user = 0; user < config.users(); user++) {
+            Random random = new Random(user);
+            users.submit(() -> {
+                long start;
+                while ((start = System.nanoTime()) < end) {
+                    LoadTestWorkload.Request request = workload.next(random);
+                    boolean error;
+                    try {
+                        error = client.send(request.httpRequest(), HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+                    } catch (IOException e) {
+                        error = true;
+                    }
+                    if (start >= measureFrom) {
+                        recorder.record(request.endpoint(), System.nanoTime() - start, error);
+                    }
+                }
+                return null;
+            });
+        }
+        users.shutdown();
+        users.awaitTermination(config.warmupSeconds() + config.durationSeconds() + 60L, TimeUnit.SECONDS);
+        return recorder;
+    }
+
+    /**
+     * Open model: requests are sent at a fixed rate whether or not earlier requests were answered.
+     * Latencies are measured from the time a request was scheduled, so a stalled application is not hidden
+     * by requests that were sent late (coordinated omission).
+     */
+    private static LatencyRecorder runOpen(HttpClient client, LoadTestWorkload workload, LoadTestConfig config) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        Random random = new Random(0);
+        long interval = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long begin = System.nanoTime();
+        long measureFrom = begin + TimeUnit.SECONDS.toNanos(config.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        List<CompletableFuture<?>> responses = new ArrayList<>();
+        for (long scheduled = begin; scheduled < end; scheduled += interval) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intended = scheduled;
+            LoadTestWorkload.Request request = workload.next(random);
+            responses.add(client.sendAsync(request.httpRequest(), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        if (intended >= measureFrom) {
+                            recorder.record(request.endpoint(), System.nanoTime() - intended,
+                                    failure != null || response.statusCode() >= 400);
+                        }
+                        return null;
+                    }));
+        }
+        try {
+            CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.out.println("Not all requests were answered: " + e);
+        }
+        return recorder;
+    }
+
+    private static void print(List<LatencyRecorder.EndpointResult> results) {
+        System.out.printf("%-34s %9s %7s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (LatencyRecorder.EndpointResult result : results) {
+            System.out.printf("%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", result.endpoint(), result.requests(), result.errors(),
+                    result.throughput(), result.p50Ms(), result.p99Ms(), result.p999Ms(), result.maxMs());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package nl.rug.API.benchmark;
+
+/**
+ * Settings of a load test, read from the loadtest.* system properties (see the loadtest profile in the pom).
+ *
+ * @param books          number of seeded books
+ * @param songs          number of seeded songs, distributed over the albums
+ * @param albums         number of seeded albums
+ * @param reviews        number of seeded reviews, half for books and half for songs, skewed to popular items
+ * @param model          CLOSED: a fixed number of users sending a request when the previous one is answered,
+ *                       OPEN: requests arrive at a fixed rate, independent of the response times
+ * @param users          number of concurrent users of the closed model
+ * @param rate           requests per second of the open model
+ * @param warmupSeconds  duration of the warmup, not included in the results
+ * @param durationSeconds duration of the measurement
+ * @param writePercent   percentage of requests that write (new reviews and book updates)
+ */
+record LoadTestConfig(int books,
+                      int songs,
+                      int albums,
+                      int reviews,
+                      Model model,
+                      int users,
+                      int rate,
+                      int warmupSeconds,
+                      int durationSeconds,
+                      int writePercent) {
+
+    enum Model {
+        CLOSED,
+        OPEN
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadtest.books", 10_000),
+                Integer.getInteger("loadtest.songs", 5_000),
+                Integer.getInteger("loadtest.albums", 500),
+                Integer.getInteger("loadtest.reviews", 50_000),
+                Model.valueOf(System.getProperty("loadtest.model", "closed").toUpperCase()),
+                Integer.getInteger("loadtest.users", 16),
+                Integer.getInteger("loadtest.rate", 200),
+                Integer.getInteger("loadtest.warmup", 10),
+                Integer.getInteger("loadtest.duration", 60),
+                Integer.getInteger("loadtest.writePercent", 10));
+    }
+}
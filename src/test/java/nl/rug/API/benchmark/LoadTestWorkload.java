@@ -0,0 +1,141 @@
+package nl.rug.API.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.rug.API.bookmanagement.BookDTO;
+import nl.rug.API.reviewmanagement.ReviewDTO;
+import nl.rug.API.reviewmanagement.ReviewType;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The mix of requests sent by a load test. Reads go to the list, detail, rating and review endpoints,
+ * writes add reviews and update books. Ids are picked with the same skew as the seeded reviews,
+ * so popular items are requested most.
+ */
+final class LoadTestWorkload {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * A request and the endpoint it is reported under.
+     *
+     * @param endpoint    the method and path template, e.g. "GET /books/{id}"
+     * @param httpRequest the request to send
+     */
+    record Request(String endpoint, HttpRequest httpRequest) {
+    }
+
+    private record Operation(String endpoint, int weight, Function<Random, HttpRequest> request) {
+    }
+
+    private final URI baseUri;
+    private final ObjectMapper objectMapper;
+    private final List<Integer> bookIds;
+    private final List<Integer> songIds;
+    private final List<Integer> albumIds;
+    private final int books;
+    private final int writePercent;
+    private final List<Operation> reads;
+    private final List<Operation> writes;
+    private final AtomicInteger reviewNumber = new AtomicInteger();
+
+    LoadTestWorkload(URI baseUri, ObjectMapper objectMapper, List<Integer> bookIds, List<Integer> songIds,
+                     List<Integer> albumIds, int writePercent) {
+        this.baseUri = baseUri;
+        this.objectMapper = objectMapper;
+        this.bookIds = bookIds;
+        this.songIds = songIds;
+        this.albumIds = albumIds;
+        this.books = bookIds.size();
+        this.writePercent = writePercent;
+        // Seeded albums and their songs have the artists "artist-0" to "artist-99"
+        int artists = Math.max(1, Math.min(100, albumIds.size()));
+        this.reads = List.of(
+                new Operation("GET /books", 10, random -> get("/books?limit=20&genre=genre-" + random.nextInt(20))),
+                new Operation("GET /books/{id}", 15, random -> get("/books/" + BenchmarkApplication.skewed(random, bookIds))),
+                new Operation("GET /books/{id}/rating", 10, random -> get("/books/" + BenchmarkApplication.skewed(random, bookIds) + "/rating")),
+                new Operation("GET /songs", 10, random -> get("/songs?limit=20&artist=artist-" + random.nextInt(artists))),
+                new Operation("GET /songs/{id}", 10, random -> get("/songs/" + BenchmarkApplication.skewed(random, songIds))),
+                new Operation("GET /songs/{id}/rating", 5, random -> get("/songs/" + BenchmarkApplication.skewed(random, songIds) + "/rating")),
+                new Operation("GET /albums", 5, random -> get("/albums?limit=20&expand=songs&artist=artist-" + random.nextInt(artists))),
+                new Operation("GET /albums/{id}", 10, random -> get("/albums/" + BenchmarkApplication.skewed(random, albumIds))),
+                new Operation("GET /albums/{id}/rating", 5, random -> get("/albums/" + BenchmarkApplication.skewed(random, albumIds) + "/rating")),
+                new Operation("GET /reviews", 20, random -> random.nextBoolean()
+                        ? get("/reviews?limit=20&reviewType=BOOK&mediaId=" + BenchmarkApplication.skewed(random, bookIds))
+                        : get("/reviews?limit=20&reviewType=SONG&mediaId=" + BenchmarkApplication.skewed(random, songIds))));
+        this.writes = List.of(
+                new Operation("POST /reviews", 2, this::addReview),
+                new Operation("PUT /books/updateByIsbn/{isbn}", 1, this::updateBook));
+    }
+
+    /**
+     * Picks the next request of the mix.
+     *
+     * @param random the source of randomness of the calling user or scheduler
+     * @return the request
+     */
+    Request next(Random random) {
+        Operation operation = pick(random.nextInt(100) < writePercent ? writes : reads, random);
+        return new Request(operation.endpoint(), operation.request().apply(random));
+    }
+
+    private static Operation pick(List<Operation> operations, Random random) {
+        int total = operations.stream().mapToInt(Operation::weight).sum();
+        int value = random.nextInt(total);
+        for (Operation operation : operations) {
+            value -= operation.weight();
+            if (value < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights changed while picking");
+    }
+
+    private HttpRequest addReview(Random random) {
+        boolean book = random.nextBoolean();
+        int mediaId = BenchmarkApplication.skewed(random, book ? bookIds : songIds);
+        int number = reviewNumber.incrementAndGet();
+        return post("/reviews", new ReviewDTO(book ? ReviewType.BOOK : ReviewType.SONG, "load-review-" + number,
+                "load-reviewer-" + number % 100, ("Full text of load test review " + number + ". ").repeat(16),
+                "Load test review " + number, "load-test", mediaId, "media-" + mediaId, 1 + random.nextInt(5)));
+    }
+
+    private HttpRequest updateBook(Random random) {
+        // Seeded books are numbered from 1, with the isbn "isbn-<number>"
+        int number = 1 + (int) (Math.pow(random.nextDouble(), 3) * books);
+        String isbn = "isbn-" + number;
+        BookDTO book = new BookDTO("book-" + number, "author-" + number % 1_000, 1900 + number % 120, isbn,
+                "genre-" + number % 20, "Updated by the load test at " + System.currentTimeMillis());
+        return HttpRequest.newBuilder(baseUri.resolve("/books/updateByIsbn/" + isbn))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(json(book)))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json(body)))
+                .build();
+    }
+
+    private byte[] json(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize request body", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package nl.rug.API.benchmark;
+
+import nl.rug.API.albummanagement.AlbumRepository;
+import nl.rug.API.reviewmanagement.RatingAggregateService;
+import nl.rug.API.reviewmanagement.ReviewType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time of the rating lookups: the aggregate of a single book, the album rating computed over the reviews of its songs,
+ * and a full rebuild of the aggregates. Reviews are skewed, a few media items get most of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingBenchmark {
+    private static final int BOOKS = 1_000;
+    private static final int ALBUMS = 100;
+    private static final int SONGS = 1_000;
+
+    @Param({"10000", "100000"})
+    public int reviews;
+
+    private ConfigurableApplicationContext context;
+    private RatingAggregateService ratingAggregateService;
+    private AlbumRepository albumRepository;
+    private List<Integer> bookIds;
+    private List<Integer> albumIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        BenchmarkApplication.seedBooks(context, BOOKS);
+        BenchmarkApplication.seedAlbums(context, SONGS, ALBUMS);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        bookIds = jdbcTemplate.queryForList("select id from book order by id", Integer.class);
+        albumIds = jdbcTemplate.queryForList("select id from album order by id", Integer.class);
+        List<Integer> songIds = jdbcTemplate.queryForList("select id from song order by id", Integer.class);
+        BenchmarkApplication.seedReviews(context, ReviewType.BOOK, bookIds, reviews / 2);
+        BenchmarkApplication.seedReviews(context, ReviewType.SONG, songIds, reviews - reviews / 2);
+        ratingAggregateService = context.getBean(RatingAggregateService.class);
+        albumRepository = context.getBean(AlbumRepository.class);
+        ratingAggregateService.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public double bookRating() {
+        return ratingAggregateService.getAverageRating(ReviewType.BOOK, random(bookIds));
+    }
+
+    @Benchmark
+    public double albumRating() {
+        return albumRepository.averageRating(random(albumIds), ReviewType.SONG);
+    }
+
+    @Benchmark
+    public int rebuildAggregates() {
+        return ratingAggregateService.rebuild();
+    }
+
+    private static int random(List<Integer> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
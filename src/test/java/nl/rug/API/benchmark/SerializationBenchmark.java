@@ -0,0 +1,114 @@
+package nl.rug.API.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import nl.rug.API.albummanagement.Album;
+import nl.rug.API.bookmanagement.Book;
+import nl.rug.API.bookmanagement.BookSummary;
+import nl.rug.API.reviewmanagement.Review;
+import nl.rug.API.reviewmanagement.ReviewSummary;
+import nl.rug.API.reviewmanagement.ReviewType;
+import nl.rug.API.songmanagement.Song;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Time of serializing response bodies to JSON with the object mapper Spring MVC uses,
+ * for full entities and for the summaries returned by the list endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final int SONGS_PER_ALBUM = 10;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Book> books;
+    private List<BookSummary> bookSummaries;
+    private List<Album> albums;
+    private List<Review> reviews;
+    private List<ReviewSummary> reviewSummaries;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        books = IntStream.rangeClosed(1, size).mapToObj(i -> {
+            Book book = BenchmarkApplication.book(i);
+            book.setId(i);
+            return book;
+        }).toList();
+        bookSummaries = books.stream().map(book -> new BookSummary(book.getId(), book.getName(), book.getAuthor(),
+                book.getPublishedYear(), book.getIsbn(), book.getGenre(), book.getAddedOn(), book.getUpdatedOn(),
+                book.getVersion())).toList();
+        reviews = IntStream.rangeClosed(1, size).mapToObj(i -> {
+            Review review = BenchmarkApplication.review(i, ReviewType.BOOK, 1 + i % 100, 1 + i % 5);
+            review.setId(i);
+            return review;
+        }).toList();
+        reviewSummaries = reviews.stream().map(review -> new ReviewSummary(review.getId(), review.getReviewType(),
+                review.getTitle(), review.getAuthor(), review.getAffiliation(), review.getReviewRating(),
+                review.getMediaId(), review.getMediaTitle(), review.getAddedOn(), review.getUpdatedOn())).toList();
+        Timestamp releasedOn = Timestamp.valueOf(LocalDate.of(2020, 1, 1).atStartOfDay());
+        albums = IntStream.rangeClosed(1, Math.max(1, size / SONGS_PER_ALBUM)).mapToObj(a -> {
+            Album album = new Album("album-" + a, "artist-" + a, LocalDate.of(2020, 1, 1));
+            album.setId(a);
+            List<Song> songs = new ArrayList<>(SONGS_PER_ALBUM);
+            for (int s = 0; s < SONGS_PER_ALBUM; s++) {
+                Song song = new Song("song-" + s, "artist-" + a, releasedOn, 180 + s, "genre", "Description of song " + s);
+                song.setId(a * SONGS_PER_ALBUM + s);
+                songs.add(song);
+            }
+            album.setSongs(songs);
+            return album;
+        }).toList();
+    }
+
+    @Benchmark
+    public void books() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), books);
+    }
+
+    @Benchmark
+    public void bookSummaries() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), bookSummaries);
+    }
+
+    @Benchmark
+    public void albumsWithSongs() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), albums);
+    }
+
+    @Benchmark
+    public void reviews() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), reviews);
+    }
+
+    @Benchmark
+    public void reviewSummaries() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), reviewSummaries);
+    }
+}
@@ -0,0 +1,48 @@
+package nl.rug.API.bookmanagement;
+
+import com.opencsv.CSVReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvSegmentsTest {
+
+    private static List<String> split(String csv, long segmentSize) {
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        return CsvSegments.split(ByteBuffer.wrap(bytes), segmentSize).stream()
+                .map(segment -> new String(bytes, (int) segment.start(), (int) segment.length(), StandardCharsets.UTF_8))
+                .toList();
+    }
+
+    @Test
+    void headerIsASegmentOfItsOwn() {
+        assertEquals(List.of("name,author\n", "a,b\nc,d\n"), split("name,author\na,b\nc,d\n", 100));
+    }
+
+    @Test
+    void splitsOnRecordBoundaries() {
+        assertEquals(List.of("h\n", "a,b\n", "c,d\n", "e"), split("h\na,b\nc,d\ne", 1));
+    }
+
+    @Test
+    void newlinesInQuotedValuesDoNotEndARecord() {
+        String csv = "h\n\"x\ny\",\"say \"\"hi\"\"\n\"\nz\n";
+        assertEquals(List.of("h\n", "\"x\ny\",\"say \"\"hi\"\"\n\"\n", "z\n"), split(csv, 1));
+    }
+
+    @Test
+    void backslashesDoNotEscapeQuotes() throws Exception {
+        String csv = "h\n\"C:\\\",x\ny,z\n";
+        List<String> segments = split(csv, 1);
+        assertEquals(List.of("h\n", "\"C:\\\",x\n", "y,z\n"), segments);
+        try (CSVReader reader = BookCsvFormat.reader(new StringReader(segments.get(1)))) {
+            assertArrayEquals(new String[]{"C:\\", "x"}, reader.readNext());
+        }
+    }
+}
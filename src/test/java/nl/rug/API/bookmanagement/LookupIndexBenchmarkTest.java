@@ -0,0 +1,125 @@
+package nl.rug.API.bookmanagement;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the latency of the book and album lookups before and after the V2 index migration.
+ * The schema is created with the real migrations on an in-memory H2 database (MariaDB mode).
+ * Run with: mvn test -Pbenchmark
+ */
+@Slf4j
+@Tag("benchmark")
+class LookupIndexBenchmarkTest {
+    private static final String URL = "jdbc:h2:mem:lookup-benchmark;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final int BOOKS = 200_000;
+    private static final int ALBUMS = 50_000;
+    private static final int QUERIES = 200;
+
+    private static final Map<String, String> LOOKUPS = new LinkedHashMap<>();
+
+    static {
+        LOOKUPS.put("book by isbn", "select * from book where isbn = ?");
+        LOOKUPS.put("book by name (latest)", "select * from book where name = ? order by added_on desc limit 1");
+        LOOKUPS.put("books by author", "select * from book where author = ?");
+        LOOKUPS.put("books by genre (page)", "select * from book where genre = ? order by added_on desc, id desc limit 50");
+        LOOKUPS.put("albums by title", "select * from album where title = ?");
+        LOOKUPS.put("albums by artist", "select * from album where artist = ?");
+    }
+
+    @Test
+    void lookupLatencyBeforeAndAfterIndexes() throws SQLException {
+        Flyway.configure().dataSource(URL, "sa", "").target("1").load().migrate();
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            seed(connection);
+            Map<String, Double> before = measure(connection);
+
+            Flyway.configure().dataSource(URL, "sa", "").target("2").load().migrate();
+            Map<String, Double> after = measure(connection);
+
+            StringBuilder table = new StringBuilder(String.format("%-24s %14s %14s", "lookup", "before (us)", "after (us)"));
+            for (String lookup : LOOKUPS.keySet()) {
+                table.append(String.format("%n%-24s %14.1f %14.1f", lookup, before.get(lookup), after.get(lookup)));
+            }
+            log.info("Lookup latency before and after the V2 indexes:{}{}", System.lineSeparator(), table);
+        }
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try (PreparedStatement insert = connection.prepareStatement("insert into book (id, published_year, added_on, updated_on, "
+                + "author, description, genre, isbn, name) values (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= BOOKS; i++) {
+                insert.setInt(1, i);
+                insert.setInt(2, 1900 + i % 120);
+                insert.setTimestamp(3, new Timestamp(now.getTime() + i));
+                insert.setTimestamp(4, now);
+                insert.setString(5, "author-" + i % 5_000);
+                insert.setString(6, "description of book " + i);
+                insert.setString(7, "genre-" + i % 50);
+                insert.setString(8, "isbn-" + i);
+                insert.setString(9, "book-" + i % 100_000);
+                insert.addBatch();
+                if (i % 1_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement("insert into album (release_date, added_on, updated_on, "
+                + "artist, title) values (current_date, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ALBUMS; i++) {
+                insert.setTimestamp(1, now);
+                insert.setTimestamp(2, now);
+                insert.setString(3, "artist-" + i % 2_000);
+                insert.setString(4, "album-" + i);
+                insert.addBatch();
+                if (i % 1_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+    }
+
+    private static Map<String, Double> measure(Connection connection) throws SQLException {
+        Map<String, Double> results = new LinkedHashMap<>();
+        for (Map.Entry<String, String> lookup : LOOKUPS.entrySet()) {
+            Random random = new Random(42);
+            try (PreparedStatement query = connection.prepareStatement(lookup.getValue())) {
+                long start = System.nanoTime();
+                for (int i = 0; i < QUERIES; i++) {
+                    query.setString(1, parameter(lookup.getKey(), random));
+                    try (ResultSet rows = query.executeQuery()) {
+                        while (rows.next()) {
+                            rows.getInt(1);
+                        }
+                    }
+                }
+                results.put(lookup.getKey(), (System.nanoTime() - start) / 1_000.0 / QUERIES);
+            }
+        }
+        return results;
+    }
+
+    private static String parameter(String lookup, Random random) {
+        return switch (lookup) {
+            case "book by isbn" -> "isbn-" + (1 + random.nextInt(BOOKS));
+            case "book by name (latest)" -> "book-" + random.nextInt(100_000);
+            case "books by author" -> "author-" + random.nextInt(5_000);
+            case "books by genre (page)" -> "genre-" + random.nextInt(50);
+            case "albums by title" -> "album-" + (1 + random.nextInt(ALBUMS));
+            default -> "artist-" + random.nextInt(2_000);
+        };
+    }
+}
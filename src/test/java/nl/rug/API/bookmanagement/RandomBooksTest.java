@@ -0,0 +1,55 @@
+package nl.rug.API.bookmanagement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RandomBooksTest {
+    private final BookRepository bookRepository = mock(BookRepository.class);
+    private final BookServiceImpl bookService = new BookServiceImpl(bookRepository, null, null, null, null, null, null, null, null, null);
+
+    @Test
+    void returnsOnlyDistinctBooksOfTheGenre() {
+        // Poetry at the edges of the range, every id in between belongs to another genre
+        Map<Integer, Book> books = IntStream.rangeClosed(2, 9).boxed()
+                .collect(Collectors.toMap(id -> id, id -> book(id, id == 2 || id == 9 ? "poetry" : "fantasy")));
+        when(bookRepository.findIdRangeByGenre("poetry")).thenReturn(new BookIdRange(2, 9));
+        when(bookRepository.findById(anyInt())).thenAnswer(call -> Optional.ofNullable(books.get(call.<Integer>getArgument(0))));
+        when(bookRepository.findFirstByGenreAndIdGreaterThanEqualOrderByIdAsc(eq("poetry"), anyInt()))
+                .thenAnswer(call -> Optional.of(books.get(call.<Integer>getArgument(1) <= 2 ? 2 : 9)));
+
+        for (int i = 0; i < 100; i++) {
+            List<Book> sample = bookService.getRandomBooks("poetry", 2);
+            // Every fourth miss falls back to the next poetry book, so a sample is never empty
+            assertFalse(sample.isEmpty());
+            assertTrue(sample.size() <= 2);
+            assertTrue(sample.stream().allMatch(book -> book.getGenre().equals("poetry")));
+            assertEquals(sample.size(), sample.stream().map(Book::getId).distinct().count());
+        }
+    }
+
+    @Test
+    void returnsNothingForAnUnknownGenre() {
+        when(bookRepository.findIdRangeByGenre("unknown")).thenReturn(new BookIdRange(null, null));
+
+        assertEquals(List.of(), bookService.getRandomBooks("unknown", 3));
+    }
+
+    private static Book book(int id, String genre) {
+        Book book = new Book("name " + id, "author", 2000, "isbn " + id, genre, "description");
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,31 @@
+package nl.rug.API.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedTextConverterTest {
+
+    @Test
+    void shortTextIsStoredPlain() {
+        byte[] stored = CompressedTextConverter.compress("short");
+        assertEquals(6, stored.length);
+        assertEquals("short", CompressedTextConverter.decompress(stored));
+    }
+
+    @Test
+    void longTextIsDeflated() {
+        String text = "A review that repeats itself. ".repeat(100) + "é中";
+        byte[] stored = CompressedTextConverter.compress(text);
+        assertTrue(stored.length < text.length() / 4);
+        assertEquals(text, CompressedTextConverter.decompress(stored));
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertNull(CompressedTextConverter.compress(null));
+        assertNull(CompressedTextConverter.decompress(null));
+    }
+}
@@ -0,0 +1,77 @@
+package nl.rug.API.reviewmanagement;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReviewJournalTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysOnlyEntriesAfterTheCheckpoint() throws IOException {
+        Path file = directory.resolve("journal.ndjson");
+        try (ReviewJournal journal = new ReviewJournal(file, objectMapper, true, 1024 * 1024)) {
+            long first = append(journal, "first");
+            append(journal, "second");
+            append(journal, "third");
+            journal.checkpoint(first);
+        }
+        try (ReviewJournal journal = new ReviewJournal(file, objectMapper, true, 1024 * 1024)) {
+            List<ReviewJournal.Entry> pending = journal.pending();
+            assertEquals(List.of("second", "third"), titles(pending));
+            // Entries appended after the restart continue after the replayed ones
+            long next = append(journal, "fourth");
+            assertTrue(next > pending.get(1).end());
+            journal.checkpoint(next);
+        }
+        try (ReviewJournal journal = new ReviewJournal(file, objectMapper, true, 1024 * 1024)) {
+            assertEquals(List.of(), journal.pending());
+        }
+    }
+
+    @Test
+    void deletesSegmentsBeforeTheCheckpoint() throws IOException {
+        Path file = directory.resolve("journal.ndjson");
+        try (ReviewJournal journal = new ReviewJournal(file, objectMapper, false, 1)) {
+            for (int i = 0; i < 10; i++) {
+                long stored = append(journal, "stored-" + i);
+                // One more review is always waiting, so the log is never stored completely
+                append(journal, "waiting-" + i);
+                journal.checkpoint(stored);
+            }
+            // The segment holding the checkpoint and the new, empty one
+            assertEquals(2, segments());
+            assertEquals(List.of("waiting-9"), titles(journal.pending()));
+        }
+    }
+
+    private long append(ReviewJournal journal, String title) throws IOException {
+        Review review = new Review(ReviewType.BOOK, title, "author", "text", "description", "affiliation", 4, 1, "media");
+        long end = journal.append(journal.encode(review));
+        journal.sync(end);
+        return end;
+    }
+
+    private static List<String> titles(List<ReviewJournal.Entry> entries) {
+        return entries.stream().map(entry -> entry.review().getTitle()).toList();
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> !path.getFileName().toString().endsWith(".checkpoint")).count();
+        }
+    }
+}